@@ -16,9 +16,15 @@ import tk.shanebee.hg.data.*;
 import tk.shanebee.hg.game.Game;
 import tk.shanebee.hg.listeners.*;
 import tk.shanebee.hg.managers.*;
+import tk.shanebee.hg.tasks.GameScheduler;
+import tk.shanebee.hg.tasks.RollbackScheduler;
+import tk.shanebee.hg.tasks.SignUpdater;
 import tk.shanebee.hg.util.*;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * <b>Main class for HungerGames</b>
@@ -47,6 +53,12 @@ public class HG extends JavaPlugin {
 	private ItemStackManager itemStackManager;
 	private Leaderboard leaderboard;
 	private MobManager mmMobManager;
+	private RollbackScheduler rollbackScheduler;
+	private ExecutorService ioExecutor;
+	private PlayerSnapshots playerSnapshots;
+	private SignUpdater signUpdater;
+	private GameScheduler gameScheduler;
+	private Placeholders placeholders;
 
 	private static Party party = new NoParty();
 
@@ -119,14 +131,20 @@ public class HG extends JavaPlugin {
 		mobConfig = new MobConfig(this);
 		randomItems = new RandomItems(this);
         playerManager = new PlayerManager();
+		ioExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, "HungerGames-IO"));
+		playerSnapshots = new PlayerSnapshots(this);
+		signUpdater = new SignUpdater(this);
 		arenaconfig = new ArenaConfig(this);
 		killManager = new KillManager();
 		manager = new Manager(this);
+		rollbackScheduler = new RollbackScheduler(this);
+		gameScheduler = new GameScheduler(this);
 		leaderboard = new Leaderboard(this);
 
 		//PAPI check
 		if (Bukkit.getPluginManager().isPluginEnabled("PlaceholderAPI")) {
-			new Placeholders(this).register();
+			placeholders = new Placeholders(this);
+			placeholders.register();
 			Util.log("&7PAPI found, Placeholders have been &aenabled");
 		} else {
 			Util.log("&7PAPI not found, Placeholders have been &cdisabled");
@@ -164,6 +182,8 @@ public class HG extends JavaPlugin {
 		getServer().getPluginManager().registerEvents(new WandListener(this), this);
 		getServer().getPluginManager().registerEvents(new CancelListener(this), this);
 		getServer().getPluginManager().registerEvents(new GameListener(this), this);
+		getServer().getPluginManager().registerEvents(new WorldListener(this), this);
+		getServer().getPluginManager().registerEvents(signUpdater, this);
 
 		Util.log("HungerGames has been &aenabled&7 in &b%.2f seconds&7!", (float)(System.currentTimeMillis() - start) / 1000);
 	}
@@ -174,6 +194,28 @@ public class HG extends JavaPlugin {
 
     private void unloadPlugin(boolean reload) {
         stopAll();
+        signUpdater.flush();
+        if (placeholders != null) {
+            placeholders.stop();
+            placeholders = null;
+        }
+        rollbackScheduler.stop();
+        rollbackScheduler = null;
+        gameScheduler.stop();
+        gameScheduler = null;
+        leaderboard.close();
+        // Let any pending writes finish
+        ioExecutor.shutdown();
+        try {
+            if (!ioExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                Util.warning("Timed out waiting for files to be saved");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ioExecutor = null;
+        playerSnapshots = null;
+        signUpdater = null;
         games = null;
         playerSession = null;
         items = null;
@@ -231,6 +273,7 @@ public class HG extends JavaPlugin {
 		cmds.put("bordersize", new BorderSizeCmd());
 		cmds.put("bordercenter", new BorderCenterCmd());
 		cmds.put("bordertimer", new BorderTimerCmd());
+		cmds.put("template", new TemplateCmd());
 		if (Config.spectateEnabled) {
 			cmds.put("spectate", new SpectateCmd());
 		}
@@ -261,7 +304,7 @@ public class HG extends JavaPlugin {
 		ArrayList<UUID> ps = new ArrayList<>();
 		for (Game g : games) {
 			g.cancelTasks();
-			g.getGameBlockData().forceRollback();
+			g.getGameBlockData().saveRollback();
 			ps.addAll(g.getGamePlayerData().getPlayers());
 			ps.addAll(g.getGamePlayerData().getSpectators());
 		}
@@ -338,6 +381,41 @@ public class HG extends JavaPlugin {
 		return this.arenaconfig;
 	}
 
+	/** Get the scheduler which runs all rollbacks
+	 * @return Rollback scheduler
+	 */
+	public RollbackScheduler getRollbackScheduler() {
+		return this.rollbackScheduler;
+	}
+
+	/** Get the scheduler which runs the tasks of all games
+	 * @return Game scheduler
+	 */
+	public GameScheduler getGameScheduler() {
+		return this.gameScheduler;
+	}
+
+	/** Get the executor used to read/write files in the background
+	 * @return IO executor
+	 */
+	public ExecutorService getIoExecutor() {
+		return this.ioExecutor;
+	}
+
+	/** Get the saved pre-game data of players
+	 * @return Player snapshots
+	 */
+	public PlayerSnapshots getPlayerSnapshots() {
+		return this.playerSnapshots;
+	}
+
+	/** Get the updater which writes lobby signs
+	 * @return Sign updater
+	 */
+	public SignUpdater getSignUpdater() {
+		return this.signUpdater;
+	}
+
 	/** Get an instance of HG's leaderboards
 	 * @return Leaderboard
 	 */
@@ -1,6 +1,7 @@
 package tk.shanebee.hg;
 
 import tk.shanebee.hg.data.Language;
+import tk.shanebee.hg.util.MessageTemplate;
 import tk.shanebee.hg.util.Util;
 
 /**
@@ -43,30 +44,36 @@ public enum Status {
 	/**
 	 * Game is counting down to start
 	 */
-	COUNTDOWN;
+	COUNTDOWN,
+	/**
+	 * Game can be joined while the outer region is still rolling back
+	 */
+	RESTORING;
 
 	final Language lang = HG.getPlugin().getLang();
 
 	public String getName() {
         switch (this) {
             case RUNNING:
-                return Util.getColString(lang.status_running);
+                return MessageTemplate.of(lang.status_running).render();
             case STOPPED:
-                return Util.getColString(lang.status_stopped);
+                return MessageTemplate.of(lang.status_stopped).render();
             case READY:
-                return Util.getColString(lang.status_ready);
+                return MessageTemplate.of(lang.status_ready).render();
             case WAITING:
-                return Util.getColString(lang.status_waiting);
+                return MessageTemplate.of(lang.status_waiting).render();
             case BROKEN:
-                return Util.getColString(lang.status_broken);
+                return MessageTemplate.of(lang.status_broken).render();
             case ROLLBACK:
-                return Util.getColString(lang.status_rollback);
+                return MessageTemplate.of(lang.status_rollback).render();
             case NOTREADY:
-                return Util.getColString(lang.status_not_ready);
+                return MessageTemplate.of(lang.status_not_ready).render();
             case BEGINNING:
-                return Util.getColString(lang.status_beginning);
+                return MessageTemplate.of(lang.status_beginning).render();
             case COUNTDOWN:
-                return Util.getColString(lang.status_countdown);
+                return MessageTemplate.of(lang.status_countdown).render();
+            case RESTORING:
+                return MessageTemplate.of(lang.status_restoring).render();
             default:
                 return Util.getColString("&cERROR!");
         }
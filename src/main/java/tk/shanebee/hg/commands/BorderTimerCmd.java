@@ -23,11 +23,6 @@ public class BorderTimerCmd extends BaseCmd {
 			try {
 				start = Integer.parseInt(args[2]);
 				end = Integer.parseInt(args[3]);
-				if (start % 30 != 0) {
-					Util.scm(player, sendHelpLine());
-					Util.scm(player, "&7<&rstart&7> &cneeds to be an increment of 30");
-					return false;
-				}
 				if (start <= end) {
 					Util.scm(player, sendHelpLine());
 					Util.scm(player, "&7<&rstart&7> &cneeds to be greater than &7<&rend&7>");
@@ -10,7 +10,7 @@ public class ChestRefillCmd extends BaseCmd {
 		cmdName = "chestrefill";
 		forceInGame = false;
 		argLength = 3;
-		usage = "<arena-name> <time=remaining(30 second increments)>";
+		usage = "<arena-name> <time=remaining seconds>";
 	}
 
 	@Override
@@ -19,10 +19,6 @@ public class ChestRefillCmd extends BaseCmd {
 		if (game != null) {
 			String name = game.getGameArenaData().getName();
 			int time = Integer.parseInt(args[2]);
-			if (time % 30 != 0) {
-				Util.scm(player, "&c<time> must be in increments of 30");
-				return true;
-			}
 			arenaConfig.getCustomConfig().set("arenas." + name + ".chest-refill", time);
 			arenaConfig.saveCustomConfig();
 			game.getGameArenaData().setChestRefillTime(time);
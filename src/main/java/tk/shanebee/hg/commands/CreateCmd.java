@@ -34,10 +34,6 @@ public class CreateCmd extends BaseCmd {
 				}
 				if (!Util.isInt(args[2]) || !Util.isInt(args[3]) || !Util.isInt(args[4])) {
 					player.sendMessage(lang.cmd_base_wrongusage + " " + sendHelpLine());
-				} else if (Integer.parseInt(args[4]) % 30 != 0) {
-					Util.sendPrefixedMessage(player, lang.cmd_create_divisible_1);
-					Util.sendPrefixedMessage(player, lang.cmd_create_divisible_2);
-					return true;
 				} else if (Integer.parseInt(args[2]) > Integer.parseInt(args[3])) {
 					Util.sendPrefixedMessage(player, lang.cmd_create_minmax);
 					sendHelpLine();
@@ -65,6 +61,7 @@ public class CreateCmd extends BaseCmd {
 
 					Bound b = new Bound(player.getWorld().getName(), lesser.getBlockX(), lesser.getBlockY(), lesser.getBlockZ(), greater.getBlockX(), greater.getBlockY(), greater.getBlockZ());
 					plugin.getGames().add(new Game(args[1], b, Integer.parseInt(args[4]), Integer.parseInt(args[2]), Integer.parseInt(args[3]), freeroam, cost));
+					gameManager.indexArenas();
 					Util.sendPrefixedMessage(player, lang.cmd_create_created.replace("<arena>", args[1]));
 					Util.sendPrefixedMessage(player, lang.cmd_create_add_spawn);
 					return true;
@@ -1,6 +1,5 @@
 package tk.shanebee.hg.commands;
 
-import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import tk.shanebee.hg.Status;
 import tk.shanebee.hg.game.Game;
@@ -8,7 +7,7 @@ import tk.shanebee.hg.game.GameArenaData;
 import tk.shanebee.hg.game.GamePlayerData;
 import tk.shanebee.hg.util.Util;
 
-import java.util.UUID;
+import java.util.ArrayList;
 
 public class DeleteCmd extends BaseCmd {
 
@@ -36,17 +35,16 @@ public class DeleteCmd extends BaseCmd {
 				}
 				if (!gamePlayerData.getPlayers().isEmpty()) {
 					Util.scm(sender, lang.cmd_delete_kicking);
-					for (UUID u : gamePlayerData.getPlayers()) {
-						Player p = Bukkit.getPlayer(u);
-						if (p != null) {
-							gamePlayerData.leave(p, false);
-						}
+					// Leaving removes them from the players
+					for (Player p : new ArrayList<>(gamePlayerData.getPlayerHandles())) {
+						gamePlayerData.leave(p, false);
 					}
 				}
 				arenaConfig.getCustomConfig().set("arenas." + args[1], null);
 				arenaConfig.saveCustomConfig();
 				Util.scm(sender, lang.cmd_delete_deleted.replace("<arena>", gameArenaData.getName()));
 				plugin.getGames().remove(g);
+				gameManager.indexArenas();
 			} catch (Exception e) {
 				Util.scm(sender, lang.cmd_delete_failed);
 			}
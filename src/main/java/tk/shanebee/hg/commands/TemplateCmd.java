@@ -0,0 +1,51 @@
+package tk.shanebee.hg.commands;
+
+import tk.shanebee.hg.Status;
+import tk.shanebee.hg.data.ArenaTemplate;
+import tk.shanebee.hg.game.Game;
+import tk.shanebee.hg.tasks.TemplateRestore;
+import tk.shanebee.hg.util.Util;
+
+public class TemplateCmd extends BaseCmd {
+
+    public TemplateCmd() {
+        forcePlayer = false;
+        cmdName = "template";
+        forceInGame = false;
+        argLength = 3;
+        usage = "<arena-name> <save|restore>";
+    }
+
+    @Override
+    public boolean run() {
+        Game game = gameManager.getGame(args[1]);
+        if (game == null) {
+            Util.scm(sender, lang.cmd_delete_noexist);
+            return true;
+        }
+        String name = game.getGameArenaData().getName();
+        Status status = game.getGameArenaData().getStatus();
+        if (status != Status.READY && status != Status.STOPPED && status != Status.BROKEN && status != Status.NOTREADY) {
+            Util.scm(sender, lang.cmd_template_in_use.replace("<arena>", name));
+            return true;
+        }
+
+        ArenaTemplate template = new ArenaTemplate(plugin, name);
+        if (args[2].equalsIgnoreCase("save")) {
+            Util.scm(sender, lang.cmd_template_saving.replace("<arena>", name));
+            template.save(game.getGameArenaData().getBound(), saved ->
+                    Util.scm(sender, (saved ? lang.cmd_template_saved : lang.cmd_template_failed).replace("<arena>", name)));
+        } else if (args[2].equalsIgnoreCase("restore")) {
+            if (!template.exists()) {
+                Util.scm(sender, lang.cmd_template_none.replace("<arena>", name));
+                return true;
+            }
+            new TemplateRestore(game, template);
+            Util.scm(sender, lang.cmd_template_restoring.replace("<arena>", name));
+        } else {
+            Util.scm(sender, lang.cmd_base_wrongusage + " " + sendHelpLine());
+        }
+        return true;
+    }
+
+}
@@ -234,6 +234,7 @@ public class ArenaConfig {
                                 arenaName, world.getName());
 						Util.debug(exception);
 					}
+					game.getGameBlockData().resumeRollback();
 					Util.log("Arena &b" + arenaName + "&7 has been &aloaded!");
 
 				}
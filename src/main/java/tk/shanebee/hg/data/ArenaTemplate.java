@@ -0,0 +1,344 @@
+package tk.shanebee.hg.data;
+
+import io.papermc.lib.PaperLib;
+import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import tk.shanebee.hg.HG;
+import tk.shanebee.hg.game.BlockJournal;
+import tk.shanebee.hg.game.Bound;
+import tk.shanebee.hg.util.Util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Snapshot of all blocks within an arena's {@link Bound}, saved to disk
+ * <p>Blocks are stored per chunk section (16x16x16), each with its own palette of block data
+ * and a varint index into that palette for every block of the section within the bound.
+ * Container items and sign lines are stored alongside.</p>
+ * <p>Encoding and decoding happen on the IO thread, only capturing the chunks happens on the main thread.</p>
+ */
+public class ArenaTemplate {
+
+    private static final int MAGIC = 0x48475431; // HGT1
+
+    private final HG plugin;
+    private final ExecutorService executor;
+    private final File file;
+    private final String arena;
+
+    public ArenaTemplate(HG plugin, String arena) {
+        this.plugin = plugin;
+        this.executor = plugin.getIoExecutor();
+        this.file = new File(plugin.getDataFolder(), "templates" + File.separator + arena + ".template");
+        this.arena = arena;
+    }
+
+    /**
+     * Check if this template has been saved
+     *
+     * @return True if a template file exists for this arena
+     */
+    public boolean exists() {
+        return file.exists();
+    }
+
+    /**
+     * Capture all blocks within a bound and save them to this template
+     * <p>Chunks are loaded asynchronously where possible, the template is written in the background</p>
+     *
+     * @param bound    Bound to capture
+     * @param callback Called on the main thread with whether the template was saved
+     */
+    public void save(Bound bound, Consumer<Boolean> callback) {
+        World world = bound.getWorld();
+        int[] box = ChunkCapture.getBox(bound);
+        int minCX = box[0] >> 4;
+        int minCZ = box[2] >> 4;
+        int width = (box[3] >> 4) - minCX + 1;
+        int depth = (box[5] >> 4) - minCZ + 1;
+
+        ChunkCapture[] captures = new ChunkCapture[width * depth];
+        CompletableFuture<?>[] loads = new CompletableFuture<?>[captures.length];
+        for (int i = 0; i < captures.length; i++) {
+            int index = i;
+            loads[i] = PaperLib.getChunkAtAsync(world, minCX + i % width, minCZ + i / width)
+                    .thenAccept(chunk -> captures[index] = new ChunkCapture(chunk, box));
+        }
+        CompletableFuture.allOf(loads).whenComplete((v, ex) -> {
+            if (ex != null) {
+                Util.warning("Failed to load chunks for template of arena '%s'", arena);
+                Util.debug(ex instanceof Exception ? (Exception) ex : new Exception(ex));
+                Bukkit.getScheduler().runTask(plugin, () -> callback.accept(false));
+                return;
+            }
+            executor.execute(() -> {
+                boolean saved = true;
+                try {
+                    write(world.getName(), box, captures);
+                } catch (IOException e) {
+                    saved = false;
+                    Util.warning("Failed to save template for arena '%s'", arena);
+                    Util.debug(e);
+                }
+                boolean result = saved;
+                Bukkit.getScheduler().runTask(plugin, () -> callback.accept(result));
+            });
+        });
+    }
+
+    /**
+     * Read and decode this template in the background
+     *
+     * @param bound    Bound of the arena, the template is only loaded if it was saved with the same bound
+     * @param callback Called on the main thread with the sections of this template, or null if it could not be loaded
+     */
+    public void load(Bound bound, Consumer<List<Section>> callback) {
+        String world = bound.getWorld().getName();
+        int[] box = ChunkCapture.getBox(bound);
+        executor.execute(() -> {
+            List<Section> sections = null;
+            try {
+                sections = read(world, box);
+            } catch (IOException e) {
+                Util.warning("Failed to read template for arena '%s'", arena);
+                Util.debug(e);
+            }
+            List<Section> result = sections;
+            Bukkit.getScheduler().runTask(plugin, () -> callback.accept(result));
+        });
+    }
+
+    private void write(String world, int[] box, ChunkCapture[] captures) throws IOException {
+        Files.createDirectories(file.getParentFile().toPath());
+        File temp = new File(file.getPath() + ".tmp");
+        int minSY = box[1] >> 4;
+        int maxSY = box[4] >> 4;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(temp))))) {
+            out.writeInt(MAGIC);
+            out.writeUTF(world);
+            for (int coord : box) {
+                out.writeInt(coord);
+            }
+            out.writeInt(captures.length * (maxSY - minSY + 1));
+            for (ChunkCapture capture : captures) {
+                for (int sy = minSY; sy <= maxSY; sy++) {
+                    writeSection(out, capture, sy, box);
+                }
+            }
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void writeSection(DataOutputStream out, ChunkCapture capture, int sy, int[] box) throws IOException {
+        ChunkSnapshot snapshot = capture.getSnapshot();
+        int cx = snapshot.getX();
+        int cz = snapshot.getZ();
+        int[] section = clip(cx, sy, cz, box);
+
+        List<BlockData> palette = new ArrayList<>();
+        Map<BlockData, Integer> paletteIds = new HashMap<>();
+        int[] indices = new int[(section[3] - section[0] + 1) * (section[4] - section[1] + 1) * (section[5] - section[2] + 1)];
+        Map<Integer, TileContents> tiles = new HashMap<>();
+        int i = 0;
+        for (int y = section[1]; y <= section[4]; y++) {
+            for (int z = section[2]; z <= section[5]; z++) {
+                for (int x = section[0]; x <= section[3]; x++) {
+                    BlockData data = snapshot.getBlockData(x & 15, y, z & 15);
+                    Integer id = paletteIds.get(data);
+                    if (id == null) {
+                        id = palette.size();
+                        palette.add(data);
+                        paletteIds.put(data, id);
+                    }
+                    TileContents contents = capture.getContents(BlockJournal.pack(x, y, z));
+                    if (contents != null) {
+                        tiles.put(i, contents);
+                    }
+                    indices[i++] = id;
+                }
+            }
+        }
+
+        out.writeInt(cx);
+        out.writeInt(sy);
+        out.writeInt(cz);
+        writeVarInt(out, palette.size());
+        for (BlockData data : palette) {
+            out.writeUTF(data.getAsString());
+        }
+        for (int index : indices) {
+            writeVarInt(out, index);
+        }
+        writeVarInt(out, tiles.size());
+        for (Map.Entry<Integer, TileContents> tile : tiles.entrySet()) {
+            writeVarInt(out, tile.getKey());
+            TileContents.write(out, tile.getValue());
+        }
+    }
+
+    private List<Section> read(String world, int[] box) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a template file");
+            }
+            boolean matches = in.readUTF().equals(world);
+            for (int coord : box) {
+                matches &= in.readInt() == coord;
+            }
+            if (!matches) {
+                Util.warning("Template for arena '%s' does not match its bounds, please save it again", arena);
+                return null;
+            }
+
+            // Palettes mostly repeat between sections, only parse each block data once
+            Map<String, BlockData> parsed = new HashMap<>();
+            int count = in.readInt();
+            List<Section> sections = new ArrayList<>(count);
+            for (int s = 0; s < count; s++) {
+                int cx = in.readInt();
+                int sy = in.readInt();
+                int cz = in.readInt();
+                Section section = new Section(cx, cz, clip(cx, sy, cz, box));
+
+                BlockData[] palette = new BlockData[readVarInt(in)];
+                for (int i = 0; i < palette.length; i++) {
+                    palette[i] = parsed.computeIfAbsent(in.readUTF(), Bukkit::createBlockData);
+                }
+                section.palette = palette;
+                for (int i = 0; i < section.indices.length; i++) {
+                    section.indices[i] = (char) readVarInt(in);
+                }
+                int tiles = readVarInt(in);
+                for (int i = 0; i < tiles; i++) {
+                    section.tiles.put(readVarInt(in), TileContents.read(in));
+                }
+                sections.add(section);
+            }
+            return sections;
+        }
+    }
+
+    // Part of a chunk section within the box, as {minX, minY, minZ, maxX, maxY, maxZ}
+    private static int[] clip(int cx, int sy, int cz, int[] box) {
+        return new int[]{
+                Math.max(cx << 4, box[0]), Math.max(sy << 4, box[1]), Math.max(cz << 4, box[2]),
+                Math.min((cx << 4) + 15, box[3]), Math.min((sy << 4) + 15, box[4]), Math.min((cz << 4) + 15, box[5])
+        };
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift >= 32) {
+                throw new IOException("VarInt too big");
+            }
+            b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Blocks of one chunk section of a template, within the arena's bound
+     */
+    public static class Section {
+
+        private final int chunkX;
+        private final int chunkZ;
+        private final int minX;
+        private final int minY;
+        private final int minZ;
+        private final int width;
+        private final int depth;
+        private BlockData[] palette;
+        private final char[] indices;
+        private final Map<Integer, TileContents> tiles = new HashMap<>();
+
+        private Section(int chunkX, int chunkZ, int[] box) {
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.minX = box[0];
+            this.minY = box[1];
+            this.minZ = box[2];
+            this.width = box[3] - box[0] + 1;
+            this.depth = box[5] - box[2] + 1;
+            this.indices = new char[width * depth * (box[4] - box[1] + 1)];
+        }
+
+        public int getChunkX() {
+            return chunkX;
+        }
+
+        public int getChunkZ() {
+            return chunkZ;
+        }
+
+        /**
+         * Get the amount of blocks in this section
+         *
+         * @return Amount of blocks
+         */
+        public int size() {
+            return indices.length;
+        }
+
+        public int getX(int index) {
+            return minX + index % width;
+        }
+
+        public int getY(int index) {
+            return minY + index / (width * depth);
+        }
+
+        public int getZ(int index) {
+            return minZ + (index / width) % depth;
+        }
+
+        public BlockData getBlockData(int index) {
+            return palette[indices[index]];
+        }
+
+        /**
+         * Get the tile entity contents of a block
+         *
+         * @param index Index of the block
+         * @return Contents of the block, null if it has none
+         */
+        public TileContents getContents(int index) {
+            return tiles.get(index);
+        }
+
+    }
+
+}
@@ -0,0 +1,76 @@
+package tk.shanebee.hg.data;
+
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.BlockState;
+import tk.shanebee.hg.game.BlockJournal;
+import tk.shanebee.hg.game.Bound;
+import tk.shanebee.hg.util.Util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Blocks and tile entity contents of a chunk within a box
+ * <p>Must be taken on the main thread, it can then be read from any thread</p>
+ */
+public class ChunkCapture {
+
+    private final ChunkSnapshot snapshot;
+    private final Map<Long, TileContents> tiles = new HashMap<>();
+
+    /**
+     * Capture a chunk
+     *
+     * @param chunk Chunk to capture
+     * @param box   Box to capture tile entities within, as returned by {@link #getBox(Bound)}
+     */
+    public ChunkCapture(Chunk chunk, int[] box) {
+        this.snapshot = chunk.getChunkSnapshot(false, false, false);
+        for (BlockState state : chunk.getTileEntities()) {
+            int x = state.getX();
+            int y = state.getY();
+            int z = state.getZ();
+            if (x < box[0] || y < box[1] || z < box[2] || x > box[3] || y > box[4] || z > box[5]) continue;
+            TileContents contents = TileContents.capture(state);
+            if (contents != null) {
+                tiles.put(BlockJournal.pack(x, y, z), contents);
+            }
+        }
+    }
+
+    public ChunkSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Get the tile entity contents of a block
+     *
+     * @param position Packed position of the block
+     * @return Contents of the block, null if it has none
+     */
+    public TileContents getContents(long position) {
+        return tiles.get(position);
+    }
+
+    /**
+     * Get the blocks of a bound, clipped to the height of its world
+     *
+     * @param bound Bound to get the box of
+     * @return Box as {minX, minY, minZ, maxX, maxY, maxZ}
+     */
+    public static int[] getBox(Bound bound) {
+        World world = bound.getWorld();
+        Location min = bound.getLesserCorner();
+        Location max = bound.getGreaterCorner();
+        // Worlds only go below 0 since 1.17
+        int minHeight = Util.isRunningMinecraft(1, 17) ? world.getMinHeight() : 0;
+        return new int[]{
+                min.getBlockX(), Math.max(min.getBlockY(), minHeight), min.getBlockZ(),
+                max.getBlockX(), Math.min(max.getBlockY(), world.getMaxHeight() - 1), max.getBlockZ()
+        };
+    }
+
+}
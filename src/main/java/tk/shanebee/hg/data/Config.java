@@ -1,5 +1,6 @@
 package tk.shanebee.hg.data;
 
+import org.bukkit.Material;
 import org.bukkit.configuration.Configuration;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
@@ -27,6 +28,7 @@ public class Config {
     public static boolean spawnmobs;
     public static int spawnmobsinterval;
     public static boolean bossbar;
+    public static double schedulerMaxTickTime;
     public static int trackingstickuses;
     public static int playersfortrackingstick;
     public static int maxchestcontent;
@@ -42,6 +44,8 @@ public class Config {
     public static boolean enableforcestartitem;
     public static String leaveitemtype;
     public static String forcestartitem;
+    public static Material leaveItem;
+    public static Material forceStartItem;
 
     //Team info
     public static boolean team_showTeamNames;
@@ -57,13 +61,21 @@ public class Config {
 
     //Rollback config info
     public static boolean breakblocks;
-    public static int blocks_per_second;
+    public static double rollbackMaxTickTime;
+    public static boolean rollbackGroupByChunk;
+    public static boolean rollbackSaveJournal;
+    public static int rollbackTemplateThreshold;
+    public static boolean rollbackDiffEngine;
+    public static int rollbackPriorityRadius;
     public static boolean protectCooldown;
     public static boolean fixleaves;
     public static boolean preventtrample;
     public static List<String> blocks;
     public static boolean itemframe_take;
 
+    //Leaderboard
+    public static String leaderboardStorage;
+
     //Random chest
     public static boolean randomChest;
     public static int randomChestInterval;
@@ -122,6 +134,7 @@ public class Config {
         spawnmobs = config.getBoolean("settings.spawn-mobs");
         spawnmobsinterval = config.getInt("settings.spawn-mobs-interval") * 20;
         bossbar = config.getBoolean("settings.bossbar-countdown");
+        schedulerMaxTickTime = config.getDouble("settings.game-tasks-max-tick-time");
         trackingstickuses = config.getInt("settings.trackingstick-uses");
         playersfortrackingstick = config.getInt("settings.players-for-trackingstick");
         maxchestcontent = config.getInt("settings.max-chestcontent");
@@ -135,6 +148,8 @@ public class Config {
         enableforcestartitem = config.getBoolean("settings.enable-force-start-item");
         leaveitemtype = config.getString("settings.leave-item-type");
         forcestartitem = config.getString("settings.force-start-item-type");
+        leaveItem = getMaterial(leaveitemtype, "settings.leave-item-type");
+        forceStartItem = getMaterial(forcestartitem, "settings.force-start-item-type");
 
         // Team
         team_maxTeamSize = config.getInt("team.max-team-size");
@@ -149,13 +164,20 @@ public class Config {
         giveReward = config.getBoolean("reward.enabled");
         cash = config.getInt("reward.cash");
         breakblocks = config.getBoolean("rollback.allow-block-break");
-        blocks_per_second = config.getInt("rollback.blocks-per-second");
+        rollbackMaxTickTime = config.getDouble("rollback.max-tick-time");
+        rollbackGroupByChunk = config.getBoolean("rollback.group-by-chunk");
+        rollbackSaveJournal = config.getBoolean("rollback.save-journal");
+        rollbackTemplateThreshold = config.getInt("rollback.template-threshold");
+        rollbackDiffEngine = config.getBoolean("rollback.diff-engine");
+        rollbackPriorityRadius = config.getInt("rollback.priority-radius");
         protectCooldown = config.getBoolean("rollback.protect-during-cooldown");
         fixleaves = config.getBoolean("rollback.fix-leaves");
         preventtrample = config.getBoolean("rollback.prevent-trampling");
         blocks = config.getStringList("rollback.editable-blocks");
         itemframe_take = config.getBoolean("rollback.allow-itemframe-take");
 
+        leaderboardStorage = config.getString("leaderboard.storage");
+
         randomChest = config.getBoolean("random-chest.enabled");
         randomChestInterval = config.getInt("random-chest.interval") * 20;
         randomChestMaxContent = config.getInt("random-chest.max-chestcontent");
@@ -198,6 +220,15 @@ public class Config {
         }
     }
 
+    // Resolved once here so listeners don't look materials up on every event
+    private Material getMaterial(String name, String path) {
+        Material material = name != null ? Material.getMaterial(name) : null;
+        if (material == null) {
+            Util.warning("Invalid material '%s' for '%s' in config.yml", name, path);
+        }
+        return material;
+    }
+
     // Used to update config
     @SuppressWarnings("ConstantConditions")
     private void matchConfig(FileConfiguration config, File file) {
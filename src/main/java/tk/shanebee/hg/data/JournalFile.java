@@ -0,0 +1,309 @@
+package tk.shanebee.hg.data;
+
+import org.bukkit.Bukkit;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.data.BlockData;
+import tk.shanebee.hg.HG;
+import tk.shanebee.hg.util.Util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Append only rollback journal of an arena
+ * <p>Blocks recorded during a game are written here off the main thread,
+ * so if the server stops before the arena has rolled back, it can be restored on the next load.
+ * Blocks recorded while a write is running are written together, so a large explosion is one write, not thousands.</p>
+ * <p>Item frames and tile entities other than containers and signs are only stored as their block data.</p>
+ */
+public class JournalFile {
+
+    private static final int MAGIC = 0x48474A31; // HGJ1
+    private static final int OPEN = 0;
+    private static final int COMPLETE = 1;
+    private static final int HEADER = 8;
+
+    private final ExecutorService executor;
+    private final File file;
+    private final String arena;
+
+    // Entries waiting to be written
+    private final List<Entry> pending = new ArrayList<>();
+    private boolean flushQueued = false;
+
+    // Only touched on the IO thread
+    private FileChannel channel;
+    // End of the last complete entry, where the next entry is written
+    private long end;
+
+    public JournalFile(HG plugin, String arena) {
+        this.executor = plugin.getIoExecutor();
+        this.file = getFile(plugin, arena);
+        this.arena = arena;
+    }
+
+    /**
+     * Check if an arena has an unfinished journal on disk
+     *
+     * @param plugin Instance of plugin
+     * @param arena  Name of arena to check
+     * @return True if a journal file exists for this arena
+     */
+    public static boolean exists(HG plugin, String arena) {
+        return getFile(plugin, arena).exists();
+    }
+
+    private static File getFile(HG plugin, String arena) {
+        return new File(plugin.getDataFolder(), "journals" + File.separator + arena + ".journal");
+    }
+
+    /**
+     * Append the original state of a block to this journal
+     * <p>The state is captured right away, it is written to disk in the background</p>
+     *
+     * @param position Packed position of the block
+     * @param state    Original state of the block
+     */
+    public void append(long position, BlockState state) {
+        append(position, state.getBlockData(), TileContents.capture(state));
+    }
+
+    /**
+     * Append the original block data and contents of a block to this journal
+     * <p>It is written to disk in the background</p>
+     *
+     * @param position Packed position of the block
+     * @param data     Original block data
+     * @param contents Original tile entity contents, may be null
+     */
+    public void append(long position, BlockData data, TileContents contents) {
+        synchronized (pending) {
+            pending.add(new Entry(position, data, contents));
+            if (flushQueued) return;
+            flushQueued = true;
+        }
+        try {
+            executor.execute(this::flush);
+        } catch (RejectedExecutionException e) {
+            // Executor has shut down, write what's left right away
+            flush();
+        }
+    }
+
+    private void flush() {
+        List<Entry> batch;
+        synchronized (pending) {
+            batch = new ArrayList<>(pending);
+            pending.clear();
+            flushQueued = false;
+        }
+        try {
+            write(batch);
+        } catch (IOException e) {
+            Util.warning("Failed to write rollback journal for arena '%s'", arena);
+            Util.debug(e);
+        }
+    }
+
+    /**
+     * Flush this journal to disk and close it, keeping it to be resumed on the next load
+     */
+    public void close() {
+        executor.execute(() -> {
+            if (channel != null) {
+                try {
+                    channel.force(false);
+                } catch (IOException e) {
+                    Util.debug(e);
+                }
+            }
+            closeChannel();
+        });
+    }
+
+    /**
+     * Mark this journal as completed and delete it
+     */
+    public void complete() {
+        executor.execute(() -> {
+            if (channel != null) {
+                try {
+                    channel.write(ByteBuffer.allocate(4).putInt(0, COMPLETE), 4);
+                    channel.force(false);
+                } catch (IOException e) {
+                    Util.debug(e);
+                }
+            }
+            // Closed before deleting, open files can't be deleted on some systems
+            closeChannel();
+            try {
+                Files.deleteIfExists(file.toPath());
+            } catch (IOException e) {
+                // Marked as complete, so it will be ignored on the next load
+                Util.debug(e);
+            }
+        });
+    }
+
+    /**
+     * Read all entries of this journal in the background
+     * <p>The journal stays open, so new entries will be appended after the ones already on disk</p>
+     *
+     * @param plugin   Instance of plugin
+     * @param callback Called on the main thread with the entries in recorded order
+     */
+    public void resume(HG plugin, Consumer<List<Entry>> callback) {
+        executor.execute(() -> {
+            List<Entry> entries = new ArrayList<>();
+            try {
+                open(entries);
+            } catch (IOException e) {
+                Util.warning("Failed to read rollback journal for arena '%s'", arena);
+                Util.debug(e);
+            }
+            Bukkit.getScheduler().runTask(plugin, () -> callback.accept(entries));
+        });
+    }
+
+    private void write(List<Entry> batch) throws IOException {
+        if (batch.isEmpty()) return;
+        if (channel == null) {
+            open(null);
+        }
+        // Each record is its length followed by its body, the length of the first record is written last
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        DataOutputStream recordOut = new DataOutputStream(record);
+        int firstLength = -1;
+        for (Entry entry : batch) {
+            record.reset();
+            recordOut.writeLong(entry.position);
+            recordOut.writeUTF(entry.blockData.getAsString());
+            TileContents.write(recordOut, entry.contents);
+            recordOut.flush();
+            if (firstLength == -1) {
+                firstLength = record.size();
+            } else {
+                out.writeInt(record.size());
+            }
+            record.writeTo(out);
+        }
+        out.flush();
+
+        // Write the records before the first length, a batch cut off by a crash then reads as the end of the journal
+        ByteBuffer body = ByteBuffer.wrap(bytes.toByteArray());
+        long start = end;
+        writeFully(body, start + 4);
+        writeFully(ByteBuffer.allocate(4).putInt(0, firstLength), start);
+        end = start + 4 + bytes.size();
+    }
+
+    private void writeFully(ByteBuffer data, long position) throws IOException {
+        while (data.hasRemaining()) {
+            position += channel.write(data, position);
+        }
+    }
+
+    // Open (or create) the journal, reading existing entries into the list if it isn't null
+    private void open(List<Entry> entries) throws IOException {
+        Files.createDirectories(file.getParentFile().toPath());
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        boolean resumable = channel.read(header, 0) == HEADER && header.getInt(0) == MAGIC && header.getInt(4) == OPEN;
+        if (!resumable) {
+            // New or already completed journal, start fresh
+            channel.truncate(0);
+            ByteBuffer created = ByteBuffer.allocate(HEADER).putInt(0, MAGIC).putInt(4, OPEN);
+            writeFully(created, 0);
+            end = HEADER;
+            return;
+        }
+
+        long pos = HEADER;
+        long size = channel.size();
+        ByteBuffer length = ByteBuffer.allocate(4);
+        while (pos + 4 <= size) {
+            length.clear();
+            if (channel.read(length, pos) != 4) break;
+            int bodyLength = length.getInt(0);
+            if (bodyLength <= 0 || pos + 4 + bodyLength > size) break;
+            if (entries != null) {
+                ByteBuffer body = ByteBuffer.allocate(bodyLength);
+                while (body.hasRemaining()) {
+                    if (channel.read(body, pos + 4 + body.position()) < 0) break;
+                }
+                try {
+                    entries.add(readEntry(body.array()));
+                } catch (Exception e) {
+                    Util.debug(e);
+                }
+            }
+            pos += 4 + bodyLength;
+        }
+        // Drop a record cut off by a crash, new entries are appended after the last complete one
+        channel.truncate(pos);
+        end = pos;
+    }
+
+    private Entry readEntry(byte[] body) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        long position = in.readLong();
+        BlockData data = Bukkit.createBlockData(in.readUTF());
+        return new Entry(position, data, TileContents.read(in));
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                Util.debug(e);
+            }
+            channel = null;
+        }
+    }
+
+    /**
+     * Original block of a position, as read back from a journal
+     */
+    public static class Entry {
+
+        private final long position;
+        private final BlockData blockData;
+        private final TileContents contents;
+
+        public Entry(long position, BlockData blockData, TileContents contents) {
+            this.position = position;
+            this.blockData = blockData;
+            this.contents = contents;
+        }
+
+        public long getPosition() {
+            return position;
+        }
+
+        public BlockData getBlockData() {
+            return blockData;
+        }
+
+        public TileContents getContents() {
+            return contents;
+        }
+
+    }
+
+}
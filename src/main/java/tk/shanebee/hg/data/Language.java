@@ -3,11 +3,13 @@ package tk.shanebee.hg.data;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import tk.shanebee.hg.HG;
+import tk.shanebee.hg.util.MessageTemplate;
 import tk.shanebee.hg.util.Util;
 
 import java.io.File;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.lang.reflect.Field;
 
 /**
  * Language handler for plugin messages
@@ -64,6 +66,7 @@ public class Language {
     public String roam_game_started;
     public String roam_time;
     public String roam_finished;
+    public String roam_waiting_restore;
     public String status_running;
     public String status_stopped;
     public String status_ready;
@@ -73,6 +76,7 @@ public class Language {
     public String status_not_ready;
     public String status_beginning;
     public String status_countdown;
+    public String status_restoring;
 
     public String death_fallen;
     public String death_explosion;
@@ -100,8 +104,6 @@ public class Language {
     public String cmd_base_noregion;
     public String cmd_base_wrongusage;
     public String cmd_create_need_selection;
-    public String cmd_create_divisible_1;
-    public String cmd_create_divisible_2;
     public String cmd_create_minmax;
     public String cmd_create_add_spawn;
     public String cmd_create_created;
@@ -152,7 +154,15 @@ public class Language {
     public String cmd_border_size;
     public String cmd_border_center;
     public String cmd_border_timer;
+    public String cmd_template_saving;
+    public String cmd_template_saved;
+    public String cmd_template_failed;
+    public String cmd_template_restoring;
+    public String cmd_template_none;
+    public String cmd_template_in_use;
+    public String snapshot_restored;
     public String listener_not_running;
+    public String listener_restoring;
     public String listener_no_edit_block;
     public String listener_no_interact;
     public String listener_wand_create_arena;
@@ -205,9 +215,25 @@ public class Language {
         }
         matchConfig(lang, customLangFile);
 		loadLang();
+        compileTemplates();
         Util.log("&7language.yml loaded");
     }
 
+    // Compile all messages once, so sending them later only fills in their placeholders
+    private void compileTemplates() {
+        MessageTemplate.clearCache();
+        for (Field field : Language.class.getFields()) {
+            if (field.getType() != String.class) continue;
+            try {
+                String message = (String) field.get(this);
+                if (message != null) {
+                    MessageTemplate.of(message);
+                }
+            } catch (IllegalAccessException ignore) {
+            }
+        }
+    }
+
     // Used to update config
     @SuppressWarnings("ConstantConditions")
     private void matchConfig(FileConfiguration config, File file) {
@@ -288,6 +314,7 @@ public class Language {
         roam_game_started = lang.getString("roam-game-started");
         roam_time = lang.getString("roam-time");
         roam_finished = lang.getString("roam-finished");
+        roam_waiting_restore = lang.getString("roam-waiting-restore");
 
         death_fallen = lang.getString("death-fallen");
         death_explosion = lang.getString("death-explosion");
@@ -316,8 +343,6 @@ public class Language {
         cmd_base_noregion = lang.getString("cmd-base-noregion");
         cmd_base_wrongusage = lang.getString("cmd-base-wrongusage");
         cmd_create_need_selection = lang.getString("cmd-create-need-selection");
-        cmd_create_divisible_1 = lang.getString("cmd-create-divisible-1");
-        cmd_create_divisible_2 = lang.getString("cmd-create-divisible-2");
         cmd_create_minmax = lang.getString("cmd-create-minmax");
         cmd_create_created = lang.getString("cmd-create-created");
         cmd_create_add_spawn = lang.getString("cmd-create-add-spawns");
@@ -364,6 +389,7 @@ public class Language {
         cmd_handler_nocmd = lang.getString("cmd-handler-nocmd");
         cmd_handler_playing = lang.getString("cmd-handler-playing");
         listener_not_running = lang.getString("listener-not-running");
+        listener_restoring = lang.getString("listener-restoring");
         listener_no_edit_block = lang.getString("listener-no-edit-block");
         listener_no_interact = lang.getString("listener-no-interact");
         track_nearest = lang.getString("track-nearest");
@@ -384,6 +410,13 @@ public class Language {
         cmd_border_center = lang.getString("cmd-border-center");
         cmd_border_size = lang.getString("cmd-border-size");
         cmd_border_timer = lang.getString("cmd-border-timer");
+        cmd_template_saving = lang.getString("cmd-template-saving");
+        cmd_template_saved = lang.getString("cmd-template-saved");
+        cmd_template_failed = lang.getString("cmd-template-failed");
+        cmd_template_restoring = lang.getString("cmd-template-restoring");
+        cmd_template_none = lang.getString("cmd-template-none");
+        cmd_template_in_use = lang.getString("cmd-template-in-use");
+        snapshot_restored = lang.getString("snapshot-restored");
 
         lb_blank_space = lang.getString("lb-blank-space");
         lb_combined_separator = lang.getString("lb-combined-separator");
@@ -408,6 +441,7 @@ public class Language {
         status_not_ready = lang.getString("status-notready");
         status_beginning = lang.getString("status-beginning");
         status_countdown = lang.getString("status-countdown");
+        status_restoring = lang.getString("status-restoring");
 
         check_need_more_spawns = lang.getString("check-need-more-spawns");
         check_broken_debug = lang.getString("check-broken-debug");
@@ -1,56 +1,56 @@
 package tk.shanebee.hg.data;
 
 import org.bukkit.Bukkit;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
 import tk.shanebee.hg.HG;
+import tk.shanebee.hg.util.Util;
 
-import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * HungerGames leader boards
  * <p>Stores different stats for players in games including wins, deaths, kills and games played.</p>
+ * <p>Stats are kept in memory in a {@link RankIndex} per stat, changes are written to the {@link StatsStore} in the background
+ * on a writer thread of its own a few seconds after they happen. Stats and names may be read from any thread.</p>
  */
 @SuppressWarnings({"WeakerAccess", "unused"})
 public class Leaderboard {
 
+    // Ticks to wait before writing changes, so changes of a whole game are written together
+    private static final long FLUSH_DELAY = 100;
+
     private final HG plugin;
     private final Language lang;
-    private FileConfiguration leaderboardConfig;
-    private File config_file;
-    private final Map<String, Integer> wins;
-    private final Map<String, Integer> kills;
-    private final Map<String, Integer> deaths;
-    private final Map<String, Integer> gamesPlayed;
-
-    private final List<String> sorted_players_wins;
-    private final List<String> sorted_scores_wins;
-    private final List<String> sorted_players_kills;
-    private final List<String> sorted_scores_kills;
-    private final List<String> sorted_players_deaths;
-    private final List<String> sorted_scores_deaths;
-    private final List<String> sorted_players_gamesPlayed;
-    private final List<String> sorted_scores_gamesPlayed;
+    // Only accessed on the writer thread
+    private final StatsStore store;
+    // Own thread for the store, so batches of stats don't wait behind journals, templates and player data
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> new Thread(r, "HungerGames-Stats"));
+    private final Map<Stats, RankIndex> ranks = new EnumMap<>(Stats.class);
+    private final NameCache names;
+    private final WindowedStats windows;
+    private final BukkitTask rollTask;
+    private final Map<Stats, Set<UUID>> dirty = new EnumMap<>(Stats.class);
+    private BukkitTask flushTask = null;
+    private boolean loaded = false;
 
     public Leaderboard(HG plugin) {
         this.plugin = plugin;
         this.lang = plugin.getLang();
-        wins = new TreeMap<>();
-        kills = new TreeMap<>();
-        deaths = new TreeMap<>();
-        gamesPlayed = new TreeMap<>();
-        sorted_players_wins = new ArrayList<>();
-        sorted_scores_wins = new ArrayList<>();
-        sorted_players_kills = new ArrayList<>();
-        sorted_scores_kills = new ArrayList<>();
-        sorted_players_deaths = new ArrayList<>();
-        sorted_scores_deaths = new ArrayList<>();
-        sorted_players_gamesPlayed = new ArrayList<>();
-        sorted_scores_gamesPlayed = new ArrayList<>();
+        this.names = new NameCache(plugin);
+        this.store = createStore();
+        this.windows = new WindowedStats(plugin);
+        for (Stats stat : Stats.values()) {
+            ranks.put(stat, new RankIndex());
+        }
         loadLeaderboard();
+        windows.load();
+        // Move time windows forward once a day has passed, checked every minute
+        this.rollTask = Bukkit.getScheduler().runTaskTimer(plugin, windows::roll, 1200, 1200);
     }
 
     /** Add a win to the leaderboard
@@ -59,12 +59,7 @@ public class Leaderboard {
      */
     @Deprecated
     public void addWin(UUID uuid) {
-        if (wins.containsKey(uuid.toString())) {
-            wins.replace(uuid.toString(), wins.get(uuid.toString()) + 1);
-        } else {
-            wins.put(uuid.toString(), 1);
-        }
-        saveLeaderboard();
+        addStat(uuid, Stats.WINS);
     }
 
     /** Add a win to the leaderboard
@@ -83,7 +78,7 @@ public class Leaderboard {
      */
     @Deprecated
     public int getWins(UUID uuid) {
-        return wins.get(uuid.toString());
+        return getStat(uuid, Stats.WINS);
     }
 
     /** Get the wins for a player from the leaderboard
@@ -110,26 +105,10 @@ public class Leaderboard {
      * @param amount Amount to add
      */
     public void addStat(UUID uuid, Stats stat, int amount) {
-        Map<String, Integer> map;
-        switch (stat) {
-            case KILLS:
-                map = this.kills;
-                break;
-            case DEATHS:
-                map = this.deaths;
-                break;
-            case GAMES:
-                map = this.gamesPlayed;
-                break;
-            default:
-                map = this.wins;
-        }
-        if (map.containsKey(uuid.toString())) {
-            map.replace(uuid.toString(), map.get(uuid.toString()) + amount);
-        } else {
-            map.put(uuid.toString(), amount);
-        }
-        saveLeaderboard();
+        ranks.get(stat).add(uuid, amount);
+        windows.add(stat, uuid, amount);
+        names.resolve(uuid);
+        markDirty(stat, uuid);
     }
 
     /** Add a stat to the leaderboard (Will default to 1)
@@ -146,6 +125,7 @@ public class Leaderboard {
      * @param amount Amount to add
      */
     public void addStat(Player player, Stats stat, int amount) {
+        names.update(player);
         addStat(player.getUniqueId(), stat, amount);
     }
 
@@ -164,118 +144,252 @@ public class Leaderboard {
      * @return Amount of the relative stat
      */
     public int getStat(UUID uuid, Stats stat) {
-        Map<String, Integer> map;
-        switch (stat) {
-            case KILLS:
-                map = this.kills;
-                break;
-            case DEATHS:
-                map = this.deaths;
-                break;
-            case GAMES:
-                map = this.gamesPlayed;
-                break;
-            default:
-                map = this.wins;
+        return ranks.get(stat).getScore(uuid);
+    }
+
+    /** Get the rank of a player for a stat
+     * <p>Players with the same score share the same rank</p>
+     * @param uuid Uuid of player to get
+     * @param stat Stat to get rank for
+     * @return Rank of the player starting at 1, 0 if they have no score for this stat
+     */
+    public int getRank(UUID uuid, Stats stat) {
+        return ranks.get(stat).getRank(uuid);
+    }
+
+    /** Get the rank of a player for a stat
+     * @param player Player to get
+     * @param stat Stat to get rank for
+     * @return Rank of the player starting at 1, 0 if they have no score for this stat
+     */
+    public int getRank(Player player, Stats stat) {
+        return getRank(player.getUniqueId(), stat);
+    }
+
+    /** Get the top players of a stat
+     * @param stat Stat to get
+     * @param amount Max amount of players to get
+     * @return Entries of the top players, highest score first
+     */
+    public List<RankIndex.Entry> getTop(Stats stat, int amount) {
+        return ranks.get(stat).getTop(amount);
+    }
+
+    /** Get the player at a position of a stat
+     * @param stat Stat to get
+     * @param position Position starting at 1
+     * @return Entry at the position, null if there are not that many players
+     */
+    public RankIndex.Entry getEntry(Stats stat, int position) {
+        return ranks.get(stat).get(position);
+    }
+
+    /** Get a stat of a player within a time window
+     * @param uuid Uuid of player to get
+     * @param stat Stat to get
+     * @param window Window to get the stat within
+     * @return Amount of the relative stat within the window
+     */
+    public int getStat(UUID uuid, Stats stat, Window window) {
+        return windows.getRank(stat, window).getScore(uuid);
+    }
+
+    /** Get the rank of a player for a stat within a time window
+     * @param uuid Uuid of player to get
+     * @param stat Stat to get rank for
+     * @param window Window to get the rank within
+     * @return Rank of the player starting at 1, 0 if they have no score for this stat within the window
+     */
+    public int getRank(UUID uuid, Stats stat, Window window) {
+        return windows.getRank(stat, window).getRank(uuid);
+    }
+
+    /** Get the top players of a stat within a time window
+     * @param stat Stat to get
+     * @param window Window to get the top players within
+     * @param amount Max amount of players to get
+     * @return Entries of the top players, highest score first
+     */
+    public List<RankIndex.Entry> getTop(Stats stat, Window window, int amount) {
+        return windows.getRank(stat, window).getTop(amount);
+    }
+
+    /** Get the player at a position of a stat within a time window
+     * @param stat Stat to get
+     * @param window Window to get the player within
+     * @param position Position starting at 1
+     * @return Entry at the position, null if there are not that many players
+     */
+    public RankIndex.Entry getEntry(Stats stat, Window window, int position) {
+        return windows.getRank(stat, window).get(position);
+    }
+
+    /** Get the name of a player on the leaderboards
+     * @param uuid Uuid of player
+     * @return Last known name of the player
+     */
+    public String getName(UUID uuid) {
+        String name = names.getName(uuid);
+        return name != null ? name : lang.lb_missing_player;
+    }
+
+    /** Update the name of a player on the leaderboards, in case they changed it
+     * <p>Only players with stats are cached</p>
+     * @param player Player to update
+     */
+    public void updateName(Player player) {
+        UUID uuid = player.getUniqueId();
+        for (RankIndex rank : ranks.values()) {
+            if (rank.getRank(uuid) > 0) {
+                names.update(player);
+                return;
+            }
         }
-        return map.getOrDefault(uuid.toString(), 0);
+    }
+
+    /** Get the cache of player names used by the leaderboards
+     * @return Name cache
+     */
+    public NameCache getNameCache() {
+        return names;
     }
 
     /** Gets a list of players from a stat
      * <p>Will match up with scores from {@link #getStatsScores(Stats)}</p>
      * @param stat Stat to get players from
      * @return Sorted list of players from a stat
+     * @deprecated Builds a list of all players, use {@link #getTop(Stats, int)} instead
      */
+    @Deprecated
     public List<String> getStatsPlayers(Stats stat) {
-        switch (stat) {
-            case KILLS:
-                return sorted_players_kills;
-            case DEATHS:
-                return sorted_players_deaths;
-            case GAMES:
-                return sorted_players_gamesPlayed;
-            default:
-                return sorted_players_wins;
+        RankIndex rank = ranks.get(stat);
+        List<String> players = new ArrayList<>();
+        for (RankIndex.Entry entry : rank.getTop(rank.size())) {
+            players.add(getName(entry.getUuid()));
         }
+        return players;
     }
 
     /** Gets a list of scores from a stat
      * <p>Will match up with players from {@link #getStatsPlayers(Stats)}</p>
      * @param stat Stat to get scores from
      * @return Sorted list of scores from a stat
+     * @deprecated Builds a list of all scores, use {@link #getTop(Stats, int)} instead
      */
+    @Deprecated
     public List<String> getStatsScores(Stats stat) {
-        switch (stat) {
-            case KILLS:
-                return sorted_scores_kills;
-            case DEATHS:
-                return sorted_scores_deaths;
-            case GAMES:
-                return sorted_scores_gamesPlayed;
-            default:
-                return sorted_scores_wins;
+        RankIndex rank = ranks.get(stat);
+        List<String> scores = new ArrayList<>();
+        for (RankIndex.Entry entry : rank.getTop(rank.size())) {
+            scores.add(String.valueOf(entry.getScore()));
         }
+        return scores;
     }
 
-    private void saveLeaderboard() {
-        leaderboardConfig.set("Total-Wins", wins);
-        leaderboardConfig.set("Total-Deaths", deaths);
-        leaderboardConfig.set("Total-Kills", kills);
-        leaderboardConfig.set("Games-Played", gamesPlayed);
-        try {
-            leaderboardConfig.save(config_file);
-        } catch (IOException e) {
-            e.printStackTrace();
+    /**
+     * Write all changed stats to disk in the background
+     * <p>Changes are otherwise written a few seconds after they happen</p>
+     */
+    public void flush() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
         }
-        sortScores(wins, sorted_scores_wins, sorted_players_wins);
-        sortScores(kills, sorted_scores_kills, sorted_players_kills);
-        sortScores(deaths, sorted_scores_deaths, sorted_players_deaths);
-        sortScores(gamesPlayed, sorted_scores_gamesPlayed, sorted_players_gamesPlayed);
+        windows.flush();
+        if (!loaded) return;
+        names.flush();
+        if (dirty.isEmpty()) return;
+
+        Map<Stats, Map<UUID, Integer>> changes = new EnumMap<>(Stats.class);
+        dirty.forEach((stat, uuids) -> {
+            RankIndex rank = ranks.get(stat);
+            Map<UUID, Integer> values = new HashMap<>();
+            for (UUID uuid : uuids) {
+                values.put(uuid, rank.getScore(uuid));
+            }
+            changes.put(stat, values);
+        });
+        dirty.clear();
+        writer.execute(() -> {
+            try {
+                store.save(changes);
+            } catch (IOException e) {
+                Util.warning("Failed to save leaderboard");
+                Util.debug(e);
+            }
+        });
     }
 
-    private void loadLeaderboard() {
-        config_file = new File(plugin.getDataFolder(), "leaderboard.yml");
-        if (!config_file.exists()) {
-            plugin.saveResource("leaderboard.yml", true);
+    /**
+     * Write all changed stats and close the stats store
+     * <p>Called when the plugin unloads</p>
+     */
+    public void close() {
+        rollTask.cancel();
+        flush();
+        writer.execute(store::close);
+        // Let any pending writes finish
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(30, TimeUnit.SECONDS)) {
+                Util.warning("Timed out waiting for the leaderboard to be saved");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
-        leaderboardConfig = YamlConfiguration.loadConfiguration(config_file);
-        getLeaderboard("Total-Wins", wins, sorted_scores_wins, sorted_players_wins);
-        getLeaderboard("Total-Kills", kills, sorted_scores_kills, sorted_players_kills);
-        getLeaderboard("Total-Deaths", deaths, sorted_scores_deaths, sorted_players_deaths);
-        getLeaderboard("Games-Played", gamesPlayed, sorted_scores_gamesPlayed, sorted_players_gamesPlayed);
     }
 
-    private void getLeaderboard(String path, Map<String, Integer> map, List<String> scores, List<String> players) {
-        if (leaderboardConfig.getConfigurationSection(path) != null) {
-            //noinspection ConstantConditions
-            for (String key : leaderboardConfig.getConfigurationSection(path).getKeys(false)) {
-                map.put(key, leaderboardConfig.getInt(path + "." + key));
-            }
-            sortScores(map, scores, players);
+    private void markDirty(Stats stat, UUID uuid) {
+        dirty.computeIfAbsent(stat, k -> new HashSet<>()).add(uuid);
+        // While disabling, changes are flushed once all games have stopped
+        if (flushTask == null && plugin.isEnabled()) {
+            flushTask = Bukkit.getScheduler().runTaskLater(plugin, this::flush, FLUSH_DELAY);
         }
     }
 
-    private void sortScores(Map<String, Integer> map, List<String> scores, List<String> players) {
-        scores.clear();
-        players.clear();
-        for (Map.Entry<String, Integer> sortingMap : entriesSortedByValues(map)) {
-            String player = Bukkit.getOfflinePlayer(UUID.fromString(sortingMap.getKey())).getName();
-            int score = sortingMap.getValue();
-            scores.add(String.valueOf(score));
-            players.add(player != null ? player : lang.lb_missing_player);
+    private StatsStore createStore() {
+        if (Config.leaderboardStorage.equalsIgnoreCase("sqlite")) {
+            if (Util.classExists("org.sqlite.JDBC")) {
+                return new SqliteStatsStore(plugin);
+            }
+            Util.warning("SQLite is not available on this server, leaderboard will be stored in leaderboard.yml");
+        } else if (!Config.leaderboardStorage.equalsIgnoreCase("yaml")) {
+            Util.warning("Invalid leaderboard storage '%s', leaderboard will be stored in leaderboard.yml", Config.leaderboardStorage);
         }
+        return new YamlStatsStore(plugin);
     }
 
-    private static <K, V extends Comparable<? super V>> SortedSet<Map.Entry<K, V>> entriesSortedByValues(Map<K, V> map) {
-        SortedSet<Map.Entry<K, V>> sortedEntries = new TreeSet<>(
-                (Map.Entry<K, V> e2, Map.Entry<K, V> e1) -> {
-                    int res = e1.getValue().compareTo(e2.getValue());
-                    if (res == 0) return 1;
-                    else return res;
-                }
-        );
-        sortedEntries.addAll(map.entrySet());
-        return sortedEntries;
+    private void loadLeaderboard() {
+        writer.execute(() -> {
+            Map<Stats, Map<UUID, Integer>> stats = new EnumMap<>(Stats.class);
+            for (Stats stat : Stats.values()) {
+                stats.put(stat, new HashMap<>());
+            }
+            try {
+                store.load((stat, uuid, value) -> stats.get(stat).put(uuid, value));
+            } catch (IOException e) {
+                Util.warning("Failed to load leaderboard");
+                Util.debug(e);
+                // Don't let changes overwrite stats which failed to load
+                return;
+            }
+            // Names are read and written on the IO thread
+            plugin.getIoExecutor().execute(() -> {
+                Map<UUID, String> readNames = names.read();
+                Bukkit.getScheduler().runTask(plugin, () -> {
+                    names.load(readNames);
+                    // Stats added while loading were counted from 0
+                    stats.forEach((stat, loadedStats) -> {
+                        RankIndex rank = ranks.get(stat);
+                        loadedStats.forEach(rank::add);
+                        // Only looks up players missing from the cache, ie: the first time names are cached
+                        names.resolveAll(loadedStats.keySet());
+                    });
+                    loaded = true;
+                    names.flush();
+                });
+            });
+        });
     }
 
     /**
@@ -312,4 +426,60 @@ public class Leaderboard {
 
     }
 
+    /**
+     * Time windows for leaderboards
+     * <p>Windows end with the current day, days start at midnight of the server's time zone</p>
+     */
+    public enum Window {
+        /**
+         * Stats of the current day
+         */
+        DAILY("daily", 1),
+        /**
+         * Stats of the last 7 days
+         */
+        WEEKLY("weekly", 7),
+        /**
+         * Stats of the last 30 days
+         */
+        MONTHLY("monthly", 30);
+
+        private final String window;
+        private final int days;
+
+        Window(String window, int days) {
+            this.window = window;
+            this.days = days;
+        }
+
+        public String getName() {
+            return this.window;
+        }
+
+        /**
+         * Get the amount of days in this window, including the current day
+         *
+         * @return Amount of days
+         */
+        public int getDays() {
+            return this.days;
+        }
+
+        /**
+         * Get a window by its name
+         *
+         * @param name Name of window
+         * @return Window with this name, null if none
+         */
+        public static Window getByName(String name) {
+            for (Window window : values()) {
+                if (window.window.equalsIgnoreCase(name)) {
+                    return window;
+                }
+            }
+            return null;
+        }
+
+    }
+
 }
@@ -0,0 +1,166 @@
+package tk.shanebee.hg.data;
+
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+import tk.shanebee.hg.HG;
+import tk.shanebee.hg.util.Util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Names of players on the leaderboards, saved to disk
+ * <p>Names are updated whenever a player logs in, so leaderboards never have to look up offline players.
+ * Names may be read from any thread.</p>
+ */
+public class NameCache {
+
+    // How many players to look up per tick
+    private static final int RESOLVE_PER_TICK = 20;
+
+    private final HG plugin;
+    private final File file;
+    private final Map<UUID, String> names = new ConcurrentHashMap<>();
+    // Names changed since the last save, only accessed on the main thread
+    private final Map<UUID, String> dirty = new HashMap<>();
+    // Players whose names still have to be looked up, only accessed on the main thread
+    private final Set<UUID> unresolved = new LinkedHashSet<>();
+    private BukkitTask resolveTask;
+    // Only accessed on the IO thread
+    private FileConfiguration config;
+
+    NameCache(HG plugin) {
+        this.plugin = plugin;
+        this.file = new File(plugin.getDataFolder(), "names.yml");
+    }
+
+    /**
+     * Get the name of a player
+     *
+     * @param uuid Uuid of player
+     * @return Last known name of the player, null if unknown
+     */
+    public String getName(UUID uuid) {
+        return names.get(uuid);
+    }
+
+    /**
+     * Update the name of an online player
+     *
+     * @param player Player to update
+     */
+    public void update(Player player) {
+        put(player.getUniqueId(), player.getName());
+    }
+
+    /**
+     * Look up the name of a player if it isn't cached yet
+     * <p>Must be called on the main thread</p>
+     *
+     * @param uuid Uuid of player
+     */
+    void resolve(UUID uuid) {
+        if (names.containsKey(uuid)) return;
+        String name = Bukkit.getOfflinePlayer(uuid).getName();
+        if (name != null) {
+            put(uuid, name);
+        }
+    }
+
+    /**
+     * Look up the names of players which aren't cached yet, a few players each tick
+     * <p>Must be called on the main thread, the names found are saved once all players are looked up</p>
+     *
+     * @param uuids Uuids of players
+     */
+    void resolveAll(Collection<UUID> uuids) {
+        for (UUID uuid : uuids) {
+            if (!names.containsKey(uuid)) {
+                unresolved.add(uuid);
+            }
+        }
+        if (unresolved.isEmpty() || resolveTask != null) return;
+        resolveTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
+            Iterator<UUID> iterator = unresolved.iterator();
+            for (int i = 0; i < RESOLVE_PER_TICK && iterator.hasNext(); i++) {
+                resolve(iterator.next());
+                iterator.remove();
+            }
+            if (unresolved.isEmpty()) {
+                resolveTask.cancel();
+                resolveTask = null;
+                flush();
+            }
+        }, 1, 1);
+    }
+
+    private void put(UUID uuid, String name) {
+        if (!name.equals(names.put(uuid, name))) {
+            dirty.put(uuid, name);
+        }
+    }
+
+    /**
+     * Read the names from disk, called on the IO thread
+     *
+     * @return Names read
+     */
+    Map<UUID, String> read() {
+        config = YamlConfiguration.loadConfiguration(file);
+        Map<UUID, String> read = new HashMap<>();
+        ConfigurationSection section = config.getConfigurationSection("names");
+        if (section != null) {
+            for (String key : section.getKeys(false)) {
+                try {
+                    read.put(UUID.fromString(key), section.getString(key));
+                } catch (IllegalArgumentException ignore) {
+                }
+            }
+        }
+        return read;
+    }
+
+    /**
+     * Add names read from disk, names updated while reading are kept
+     *
+     * @param read Names read by {@link #read()}
+     */
+    void load(Map<UUID, String> read) {
+        read.forEach(names::putIfAbsent);
+    }
+
+    /**
+     * Write changed names to disk in the background
+     */
+    void flush() {
+        if (dirty.isEmpty() || config == null) return;
+        Map<UUID, String> changes = new HashMap<>(dirty);
+        dirty.clear();
+        plugin.getIoExecutor().execute(() -> {
+            changes.forEach((uuid, name) -> config.set("names." + uuid, name));
+            File temp = new File(file.getPath() + ".tmp");
+            try {
+                config.save(temp);
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                Util.warning("Failed to save player names");
+                Util.debug(e);
+            }
+        });
+    }
+
+}
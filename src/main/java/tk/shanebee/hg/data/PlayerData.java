@@ -7,12 +7,19 @@ import org.bukkit.attribute.Attribute;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.scoreboard.Scoreboard;
+import org.bukkit.util.io.BukkitObjectInputStream;
+import org.bukkit.util.io.BukkitObjectOutputStream;
 import org.jetbrains.annotations.Nullable;
 import tk.shanebee.hg.HG;
 import tk.shanebee.hg.game.Game;
 import tk.shanebee.hg.game.Team;
 import tk.shanebee.hg.util.Util;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.UUID;
 
@@ -35,6 +42,7 @@ public class PlayerData implements Cloneable {
     private final Scoreboard scoreboard;
     private Location previousLocation = null;
     private boolean online;
+    private volatile State state = State.PLAYING;
 
     //InGame data
     private Team team;
@@ -65,6 +73,67 @@ public class PlayerData implements Cloneable {
         online = true;
     }
 
+    /**
+     * Read player data saved by {@link #write(DataOutputStream)}
+     * <p>Only used to restore players whose game never finished, so it has no game or scoreboard</p>
+     *
+     * @param in Stream to read from
+     * @throws IOException if the stream fails to read
+     */
+    PlayerData(DataInputStream in) throws IOException {
+        this.game = null;
+        this.uuid = new UUID(in.readLong(), in.readLong());
+        inv = readItems(in);
+        equip = readItems(in);
+        expL = in.readInt();
+        expP = in.readFloat();
+        health = in.readDouble();
+        food = in.readInt();
+        saturation = in.readFloat();
+        mode = GameMode.valueOf(in.readUTF());
+        scoreboard = null;
+        online = false;
+    }
+
+    /**
+     * Write the pre-game data of this player to a stream
+     * <p>Safe to call off the main thread, the items were taken out of the player's inventory</p>
+     *
+     * @param out Stream to write to
+     * @throws IOException if the stream fails to write
+     */
+    void write(DataOutputStream out) throws IOException {
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+        writeItems(out, inv);
+        writeItems(out, equip);
+        out.writeInt(expL);
+        out.writeFloat(expP);
+        out.writeDouble(health);
+        out.writeInt(food);
+        out.writeFloat(saturation);
+        out.writeUTF(mode.name());
+    }
+
+    private static void writeItems(DataOutputStream out, ItemStack[] items) throws IOException {
+        ByteArrayOutputStream itemBytes = new ByteArrayOutputStream();
+        try (BukkitObjectOutputStream itemOut = new BukkitObjectOutputStream(itemBytes)) {
+            itemOut.writeObject(items);
+        }
+        out.writeInt(itemBytes.size());
+        itemBytes.writeTo(out);
+    }
+
+    private static ItemStack[] readItems(DataInputStream in) throws IOException {
+        byte[] itemBytes = new byte[in.readInt()];
+        in.readFully(itemBytes);
+        try (BukkitObjectInputStream itemIn = new BukkitObjectInputStream(new ByteArrayInputStream(itemBytes))) {
+            return (ItemStack[]) itemIn.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+    }
+
     /**
      * Restore a player's saved data
      *
@@ -72,6 +141,8 @@ public class PlayerData implements Cloneable {
      */
     public void restore(Player player) {
         if (player == null) return;
+        // Restored, so the copy on disk is no longer needed
+        HG.getPlugin().getPlayerSnapshots().delete(uuid);
         Util.clearInv(player);
         player.setWalkSpeed(0.2f);
         player.setLevel(expL);
@@ -84,7 +155,12 @@ public class PlayerData implements Cloneable {
         player.updateInventory();
         player.setInvulnerable(false);
         restoreHealth(player);
-        player.setScoreboard(scoreboard);
+        if (scoreboard != null) {
+            player.setScoreboard(scoreboard);
+        } else {
+            // Restored after a crash, effects of the game may still be active
+            player.getActivePotionEffects().forEach(effect -> player.removePotionEffect(effect.getType()));
+        }
     }
 
     // Restores later if player has an item in their inventory which changes their max health value
@@ -117,6 +193,25 @@ public class PlayerData implements Cloneable {
         return game;
     }
 
+    /**
+     * Get whether this player is playing or spectating their game
+     *
+     * @return State of this player data
+     */
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Set whether this player is playing or spectating their game
+     * <p>This should mainly be used <b>internally only</b>, by the {@link tk.shanebee.hg.managers.PlayerManager}</p>
+     *
+     * @param state State to set
+     */
+    public void setState(State state) {
+        this.state = state;
+    }
+
     /**
      * Get the team of this player data
      *
@@ -226,9 +321,18 @@ public class PlayerData implements Cloneable {
                 ", team=" + team +
                 ", pending=" + pendingTeam +
                 ", game=" + game +
+                ", state=" + state +
                 '}';
     }
 
+    /**
+     * Whether a player is playing or spectating a game
+     */
+    public enum State {
+        PLAYING,
+        SPECTATING
+    }
+
     @Override
     public PlayerData clone() {
         try {
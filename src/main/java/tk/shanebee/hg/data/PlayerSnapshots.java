@@ -0,0 +1,199 @@
+package tk.shanebee.hg.data;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import tk.shanebee.hg.HG;
+import tk.shanebee.hg.game.Game;
+import tk.shanebee.hg.util.Util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Copies of {@link PlayerData pre-game player data} saved to disk
+ * <p>A player's data is saved before they enter a game and deleted once it has been restored,
+ * so a player whose game never finished (ie: the server crashed) gets their inventory back on their next login.</p>
+ * <p>Writes happen on the IO thread, all changes queued while a write is running are written together,
+ * so a player who joins and leaves quickly never touches the disk.</p>
+ */
+public class PlayerSnapshots {
+
+    private static final int MAGIC = 0x48475031; // HGP1
+
+    private final HG plugin;
+    private final ExecutorService executor;
+    private final File folder;
+
+    // Changes waiting to be written, a null value deletes the player's file
+    private final Map<UUID, PlayerData> pending = new LinkedHashMap<>();
+    private final List<CompletableFuture<Void>> waiting = new ArrayList<>();
+    private boolean flushQueued = false;
+
+    public PlayerSnapshots(HG plugin) {
+        this.plugin = plugin;
+        this.executor = plugin.getIoExecutor();
+        this.folder = new File(plugin.getDataFolder(), "playerdata");
+    }
+
+    /**
+     * Save a player's pre-game data in the background
+     *
+     * @param data Data to save
+     * @return Future completed once the data has been written
+     */
+    public CompletableFuture<Void> save(PlayerData data) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        synchronized (pending) {
+            pending.put(data.getUuid(), data);
+            waiting.add(future);
+        }
+        queueFlush();
+        return future;
+    }
+
+    /**
+     * Delete a player's saved pre-game data in the background
+     *
+     * @param uuid Uuid of player to delete
+     */
+    public void delete(UUID uuid) {
+        synchronized (pending) {
+            pending.put(uuid, null);
+        }
+        queueFlush();
+    }
+
+    /**
+     * Restore a player's saved pre-game data, if they have any
+     * <p>The file is read in the background, the data is then restored on the main thread
+     * unless the player has left or joined a game since.</p>
+     *
+     * @param player Player to restore
+     */
+    public void restore(Player player) {
+        UUID uuid = player.getUniqueId();
+        File file = getFile(uuid);
+        boolean hasPending;
+        PlayerData pendingData;
+        synchronized (pending) {
+            hasPending = pending.containsKey(uuid);
+            pendingData = pending.get(uuid);
+        }
+        if (hasPending) {
+            // Not written yet, a pending delete means their data was already restored
+            if (pendingData != null) {
+                restore(player, pendingData);
+            }
+            return;
+        }
+        executor.execute(() -> {
+            if (!file.exists()) return;
+            PlayerData data;
+            try {
+                data = read(file);
+            } catch (IOException e) {
+                Util.warning("Failed to read saved data of player '%s'", player.getName());
+                Util.debug(e);
+                return;
+            }
+            Bukkit.getScheduler().runTask(plugin, () -> restore(player, data));
+        });
+    }
+
+    private void restore(Player player, PlayerData data) {
+        if (!player.isOnline() || plugin.getPlayerManager().getData(player.getUniqueId()) != null) return;
+        data.restore(player);
+
+        // Don't leave them stranded in the arena
+        Game game = plugin.getManager().getGame(player.getLocation());
+        if (game != null) {
+            Location exit = game.getGameArenaData().getExit();
+            if (exit == null || exit.getWorld() == null) {
+                exit = Bukkit.getWorlds().get(0).getSpawnLocation();
+            }
+            player.teleport(exit);
+        }
+        Util.scm(player, plugin.getLang().prefix + plugin.getLang().snapshot_restored);
+    }
+
+    private void queueFlush() {
+        synchronized (pending) {
+            if (flushQueued) return;
+            flushQueued = true;
+        }
+        try {
+            executor.execute(this::flush);
+        } catch (RejectedExecutionException e) {
+            // Executor has shut down, write what's left right away
+            flush();
+        }
+    }
+
+    private void flush() {
+        Map<UUID, PlayerData> batch;
+        List<CompletableFuture<Void>> futures;
+        synchronized (pending) {
+            batch = new LinkedHashMap<>(pending);
+            futures = new ArrayList<>(waiting);
+            pending.clear();
+            waiting.clear();
+            flushQueued = false;
+        }
+        for (Map.Entry<UUID, PlayerData> entry : batch.entrySet()) {
+            File file = getFile(entry.getKey());
+            try {
+                if (entry.getValue() == null) {
+                    Files.deleteIfExists(file.toPath());
+                } else {
+                    write(file, entry.getValue());
+                }
+            } catch (IOException e) {
+                Util.warning("Failed to save data of player '%s'", entry.getKey());
+                Util.debug(e);
+            }
+        }
+        // Players still join if their data fails to save, it would only be lost if the server crashes
+        futures.forEach(future -> future.complete(null));
+    }
+
+    private void write(File file, PlayerData data) throws IOException {
+        Files.createDirectories(folder.toPath());
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            data.write(out);
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private PlayerData read(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a player data file");
+            }
+            return new PlayerData(in);
+        }
+    }
+
+    private File getFile(UUID uuid) {
+        return new File(folder, uuid + ".dat");
+    }
+
+}
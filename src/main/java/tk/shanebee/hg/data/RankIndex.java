@@ -0,0 +1,272 @@
+package tk.shanebee.hg.data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Ranking of players by the score of one stat
+ * <p>Players are kept ordered by score, along with a Fenwick tree counting players per score,
+ * so changing a score, finding a player's rank and getting the top players all take O(log n).
+ * The tree only covers scores up to {@link #TREE_SCORES}, the rare players above that are counted in a sorted map.</p>
+ * <p>Scores are changed on the main thread, but may be read from any thread (ie: by PlaceholderAPI).</p>
+ */
+public class RankIndex {
+
+    // Scores the Fenwick tree is limited to, keeps it from growing to the size of an outlier's score
+    private static final int TREE_SCORES = 1 << 16;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, Integer> scores = new HashMap<>();
+    // Highest score first, players with the same score are ordered by uuid
+    private final NavigableSet<Entry> order = new TreeSet<>();
+    // Fenwick tree of the amount of players per score, score s is at index s + 1
+    private int[] tree = new int[64];
+    // Amount of players per score for scores too high for the tree
+    private final NavigableMap<Integer, Integer> highScores = new TreeMap<>();
+
+    /**
+     * Add to the score of a player
+     *
+     * @param uuid   Uuid of player
+     * @param amount Amount to add
+     */
+    public void add(UUID uuid, int amount) {
+        lock.writeLock().lock();
+        try {
+            Integer old = scores.get(uuid);
+            set(uuid, old, old != null ? (int) Math.min((long) old + amount, Integer.MAX_VALUE) : amount);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Set the score of a player
+     *
+     * @param uuid  Uuid of player
+     * @param score Score to set
+     */
+    public void set(UUID uuid, int score) {
+        lock.writeLock().lock();
+        try {
+            set(uuid, scores.get(uuid), score);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a player from this ranking
+     *
+     * @param uuid Uuid of player
+     */
+    public void remove(UUID uuid) {
+        lock.writeLock().lock();
+        try {
+            Integer old = scores.remove(uuid);
+            if (old != null) {
+                order.remove(new Entry(uuid, old));
+                update(old, -1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void set(UUID uuid, Integer old, int score) {
+        score = Math.max(score, 0);
+        if (old != null) {
+            order.remove(new Entry(uuid, old));
+            update(old, -1);
+        }
+        update(score, 1);
+        scores.put(uuid, score);
+        order.add(new Entry(uuid, score));
+    }
+
+    /**
+     * Get the score of a player
+     *
+     * @param uuid Uuid of player
+     * @return Score of player, 0 if they have none
+     */
+    public int getScore(UUID uuid) {
+        lock.readLock().lock();
+        try {
+            return scores.getOrDefault(uuid, 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the rank of a player
+     * <p>Players with the same score share the same rank</p>
+     *
+     * @param uuid Uuid of player
+     * @return Rank of player starting at 1, 0 if they have no score
+     */
+    public int getRank(UUID uuid) {
+        lock.readLock().lock();
+        try {
+            Integer score = scores.get(uuid);
+            if (score == null) return 0;
+            if (score >= TREE_SCORES) {
+                int higher = 0;
+                for (int count : highScores.tailMap(score, false).values()) {
+                    higher += count;
+                }
+                return higher + 1;
+            }
+            // Everyone above the tree has a higher score
+            return scores.size() - count(score) + 1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the entry at a position of this ranking
+     *
+     * @param position Position starting at 1
+     * @return Entry at the position, null if there are not that many players
+     */
+    public Entry get(int position) {
+        if (position < 1) return null;
+        lock.readLock().lock();
+        try {
+            if (position > order.size()) return null;
+            Iterator<Entry> iterator = order.iterator();
+            for (int i = 1; i < position; i++) {
+                iterator.next();
+            }
+            return iterator.next();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the top players of this ranking
+     *
+     * @param amount Max amount of players to get
+     * @return Entries of the top players, highest score first
+     */
+    public List<Entry> getTop(int amount) {
+        lock.readLock().lock();
+        try {
+            List<Entry> top = new ArrayList<>(Math.min(amount, order.size()));
+            for (Entry entry : order) {
+                if (top.size() >= amount) break;
+                top.add(entry);
+            }
+            return top;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the amount of players in this ranking
+     *
+     * @return Amount of players with a score
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return scores.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Amount of players with a score up to and including a score
+    private int count(int score) {
+        int count = 0;
+        for (int i = Math.min(score + 1, tree.length - 1); i > 0; i -= i & -i) {
+            count += tree[i];
+        }
+        return count;
+    }
+
+    private void update(int score, int delta) {
+        if (score >= TREE_SCORES) {
+            highScores.merge(score, delta, (count, change) -> count + change == 0 ? null : count + change);
+            return;
+        }
+        if (score + 1 >= tree.length) {
+            grow(score + 1);
+        }
+        for (int i = score + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private void grow(int index) {
+        int length = tree.length;
+        while (length <= index) {
+            length <<= 1;
+        }
+        // Rebuild from all current scores, the score being set isn't ordered yet and is added by the caller
+        tree = new int[length];
+        for (Entry entry : order) {
+            if (entry.score >= TREE_SCORES) continue;
+            for (int i = entry.score + 1; i < length; i += i & -i) {
+                tree[i]++;
+            }
+        }
+    }
+
+    /**
+     * Score of a player in a {@link RankIndex}
+     */
+    public static class Entry implements Comparable<Entry> {
+
+        private final UUID uuid;
+        private final int score;
+
+        private Entry(UUID uuid, int score) {
+            this.uuid = uuid;
+            this.score = score;
+        }
+
+        public UUID getUuid() {
+            return uuid;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int compare = Integer.compare(other.score, score);
+            return compare != 0 ? compare : uuid.compareTo(other.uuid);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Entry)) return false;
+            Entry entry = (Entry) o;
+            return score == entry.score && uuid.equals(entry.uuid);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * uuid.hashCode() + score;
+        }
+
+    }
+
+}
@@ -0,0 +1,179 @@
+package tk.shanebee.hg.data;
+
+import tk.shanebee.hg.HG;
+import tk.shanebee.hg.data.Leaderboard.Stats;
+import tk.shanebee.hg.util.Util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * {@link StatsStore} saving stats to a local SQLite database, leaderboard.db
+ * <p>Each player has one row with a column per stat, each stat column is indexed.
+ * Changes are upserted in batches within a single transaction.
+ * Stats of an existing leaderboard.yml are copied into the database the first time it is used,
+ * the yaml file is read whole as YamlConfiguration can't read it in parts, only the inserts are batched.</p>
+ */
+class SqliteStatsStore implements StatsStore {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final HG plugin;
+    private final File file;
+    private Connection connection;
+
+    SqliteStatsStore(HG plugin) {
+        this.plugin = plugin;
+        this.file = new File(plugin.getDataFolder(), "leaderboard.db");
+    }
+
+    @Override
+    public void load(StatConsumer consumer) throws IOException {
+        try {
+            Connection connection = getConnection();
+            migrate(connection);
+            try (Statement statement = connection.createStatement()) {
+                statement.setFetchSize(BATCH_SIZE);
+                try (ResultSet result = statement.executeQuery("SELECT uuid, wins, kills, deaths, games FROM hg_stats")) {
+                    while (result.next()) {
+                        UUID uuid = UUID.fromString(result.getString("uuid"));
+                        for (Stats stat : Stats.values()) {
+                            int value = result.getInt(stat.getName());
+                            if (value != 0) {
+                                consumer.accept(stat, uuid, value);
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void save(Map<Stats, Map<UUID, Integer>> changes) throws IOException {
+        try {
+            Connection connection = getConnection();
+            try {
+                for (Map.Entry<Stats, Map<UUID, Integer>> entry : changes.entrySet()) {
+                    try (PreparedStatement statement = prepareUpsert(connection, entry.getKey())) {
+                        int count = 0;
+                        for (Map.Entry<UUID, Integer> value : entry.getValue().entrySet()) {
+                            statement.setString(1, value.getKey().toString());
+                            statement.setInt(2, value.getValue());
+                            statement.addBatch();
+                            if (++count % BATCH_SIZE == 0) {
+                                statement.executeBatch();
+                            }
+                        }
+                        statement.executeBatch();
+                    }
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (connection == null) return;
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            Util.debug(e);
+        }
+        connection = null;
+    }
+
+    private Connection getConnection() throws SQLException {
+        if (connection != null && !connection.isClosed()) {
+            return connection;
+        }
+        connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS hg_stats (" +
+                    "uuid CHAR(36) PRIMARY KEY, " +
+                    "wins INTEGER NOT NULL DEFAULT 0, " +
+                    "kills INTEGER NOT NULL DEFAULT 0, " +
+                    "deaths INTEGER NOT NULL DEFAULT 0, " +
+                    "games INTEGER NOT NULL DEFAULT 0)");
+            for (Stats stat : Stats.values()) {
+                statement.executeUpdate("CREATE INDEX IF NOT EXISTS hg_stats_" + stat.getName() +
+                        " ON hg_stats (" + stat.getName() + " DESC)");
+            }
+        }
+        connection.setAutoCommit(false);
+        return connection;
+    }
+
+    private static PreparedStatement prepareUpsert(Connection connection, Stats stat) throws SQLException {
+        String column = stat.getName();
+        return connection.prepareStatement("INSERT INTO hg_stats (uuid, " + column + ") VALUES (?, ?) " +
+                "ON CONFLICT (uuid) DO UPDATE SET " + column + " = excluded." + column);
+    }
+
+    // Copy stats from leaderboard.yml, only when the database is still empty
+    private void migrate(Connection connection) throws SQLException, IOException {
+        File yaml = new File(plugin.getDataFolder(), "leaderboard.yml");
+        if (!yaml.exists()) return;
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT COUNT(*) FROM hg_stats")) {
+            if (result.next() && result.getInt(1) > 0) return;
+        }
+
+        PreparedStatement[] upserts = new PreparedStatement[Stats.values().length];
+        int[] counts = new int[upserts.length];
+        try {
+            for (Stats stat : Stats.values()) {
+                upserts[stat.ordinal()] = prepareUpsert(connection, stat);
+            }
+            new YamlStatsStore(plugin).load((stat, uuid, value) -> {
+                PreparedStatement statement = upserts[stat.ordinal()];
+                try {
+                    statement.setString(1, uuid.toString());
+                    statement.setInt(2, value);
+                    statement.addBatch();
+                    if (++counts[stat.ordinal()] % BATCH_SIZE == 0) {
+                        statement.executeBatch();
+                    }
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            for (PreparedStatement statement : upserts) {
+                statement.executeBatch();
+            }
+            connection.commit();
+        } catch (SQLException | IllegalStateException e) {
+            connection.rollback();
+            throw new IOException("Failed to migrate leaderboard.yml", e);
+        } finally {
+            for (PreparedStatement statement : upserts) {
+                if (statement != null) {
+                    statement.close();
+                }
+            }
+        }
+
+        // Keep the old file around, but don't migrate it again
+        Files.move(yaml.toPath(), new File(yaml.getPath() + ".migrated").toPath(), StandardCopyOption.REPLACE_EXISTING);
+        Util.log("&7Migrated leaderboard.yml to leaderboard.db");
+    }
+
+}
@@ -0,0 +1,46 @@
+package tk.shanebee.hg.data;
+
+import tk.shanebee.hg.data.Leaderboard.Stats;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Storage of the all time stats of the {@link Leaderboard}
+ * <p>All methods are called on the leaderboard's own writer thread, one at a time.</p>
+ */
+public interface StatsStore {
+
+    /**
+     * Read all stats from this store
+     *
+     * @param consumer Called for each stat of each player
+     * @throws IOException if the stats failed to read
+     */
+    void load(StatConsumer consumer) throws IOException;
+
+    /**
+     * Write changed stats to this store
+     *
+     * @param changes New values of changed stats, per stat
+     * @throws IOException if the stats failed to write
+     */
+    void save(Map<Stats, Map<UUID, Integer>> changes) throws IOException;
+
+    /**
+     * Close this store, releasing anything it holds open
+     */
+    void close();
+
+    /**
+     * Receiver of stats read from a {@link StatsStore}
+     */
+    @FunctionalInterface
+    interface StatConsumer {
+
+        void accept(Stats stat, UUID uuid, int value);
+
+    }
+
+}
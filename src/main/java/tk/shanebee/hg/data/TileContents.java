@@ -0,0 +1,129 @@
+package tk.shanebee.hg.data;
+
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Container;
+import org.bukkit.block.Sign;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.util.io.BukkitObjectInputStream;
+import org.bukkit.util.io.BukkitObjectOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Saved contents of a tile entity
+ * <p>Only container items and sign lines are saved</p>
+ */
+public class TileContents {
+
+    private static final byte NONE = 0;
+    private static final byte ITEMS = 1;
+    private static final byte LINES = 2;
+
+    private final ItemStack[] items;
+    private final String[] lines;
+
+    private TileContents(ItemStack[] items, String[] lines) {
+        this.items = items;
+        this.lines = lines;
+    }
+
+    /**
+     * Capture the contents of a tile entity
+     * <p>Must be called on the main thread, the returned contents can then be written off the main thread</p>
+     *
+     * @param state State to capture
+     * @return Contents of the state, null if this state has no contents we can save
+     */
+    public static TileContents capture(BlockState state) {
+        if (state instanceof Container) {
+            ItemStack[] contents = ((Container) state).getSnapshotInventory().getContents();
+            ItemStack[] items = new ItemStack[contents.length];
+            for (int i = 0; i < contents.length; i++) {
+                items[i] = contents[i] != null ? contents[i].clone() : null;
+            }
+            return new TileContents(items, null);
+        } else if (state instanceof Sign) {
+            return new TileContents(null, ((Sign) state).getLines());
+        }
+        return null;
+    }
+
+    /**
+     * Write tile contents to a stream
+     *
+     * @param out      Stream to write to
+     * @param contents Contents to write, may be null
+     * @throws IOException if the stream fails to write
+     */
+    public static void write(DataOutputStream out, TileContents contents) throws IOException {
+        if (contents == null) {
+            out.writeByte(NONE);
+        } else if (contents.items != null) {
+            out.writeByte(ITEMS);
+            ByteArrayOutputStream itemBytes = new ByteArrayOutputStream();
+            try (BukkitObjectOutputStream itemOut = new BukkitObjectOutputStream(itemBytes)) {
+                itemOut.writeObject(contents.items);
+            }
+            out.writeInt(itemBytes.size());
+            itemBytes.writeTo(out);
+        } else {
+            out.writeByte(LINES);
+            out.writeByte(contents.lines.length);
+            for (String line : contents.lines) {
+                out.writeUTF(line);
+            }
+        }
+    }
+
+    /**
+     * Read tile contents from a stream
+     *
+     * @param in Stream to read from
+     * @return Contents read, null if none were written
+     * @throws IOException if the stream fails to read
+     */
+    public static TileContents read(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        if (type == ITEMS) {
+            byte[] itemBytes = new byte[in.readInt()];
+            in.readFully(itemBytes);
+            try (BukkitObjectInputStream itemIn = new BukkitObjectInputStream(new ByteArrayInputStream(itemBytes))) {
+                return new TileContents((ItemStack[]) itemIn.readObject(), null);
+            } catch (ClassNotFoundException e) {
+                throw new IOException(e);
+            }
+        } else if (type == LINES) {
+            String[] lines = new String[in.readByte()];
+            for (int i = 0; i < lines.length; i++) {
+                lines[i] = in.readUTF();
+            }
+            return new TileContents(null, lines);
+        }
+        return null;
+    }
+
+    /**
+     * Apply these contents to a block
+     *
+     * @param block Block to apply to
+     */
+    public void apply(Block block) {
+        BlockState state = block.getState();
+        if (items != null && state instanceof Container) {
+            ((Container) state).getSnapshotInventory().setContents(items);
+            state.update(true, false);
+        } else if (lines != null && state instanceof Sign) {
+            Sign sign = (Sign) state;
+            for (int i = 0; i < lines.length && i < 4; i++) {
+                sign.setLine(i, lines[i]);
+            }
+            sign.update(true, false);
+        }
+    }
+
+}
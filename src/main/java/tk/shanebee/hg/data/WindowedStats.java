@@ -0,0 +1,313 @@
+package tk.shanebee.hg.data;
+
+import org.bukkit.Bukkit;
+import tk.shanebee.hg.HG;
+import tk.shanebee.hg.data.Leaderboard.Stats;
+import tk.shanebee.hg.data.Leaderboard.Window;
+import tk.shanebee.hg.util.Util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Stats of the {@link Leaderboard} within {@link Window time windows}
+ * <p>Stats are counted in one bucket per day, each window ranks the sum of its last few buckets.
+ * When a day ends only the bucket leaving a window is subtracted from its rankings,
+ * no other players have to be visited.</p>
+ * <p>Each bucket is saved to its own file in the background, only buckets which changed are written again.
+ * Buckets are only changed on the main thread, rankings may be read from any thread.</p>
+ */
+class WindowedStats {
+
+    private static final int MAGIC = 0x48475731; // HGW1
+    private static final int MAX_DAYS = maxDays();
+
+    private final HG plugin;
+    private final File folder;
+    private final Map<Window, Map<Stats, RankIndex>> ranks = new EnumMap<>(Window.class);
+    // Oldest first, only buckets within the longest window are kept
+    private final Deque<Bucket> buckets = new ArrayDeque<>();
+    private final Set<Long> dirtyDays = new HashSet<>();
+    private final Set<Long> retiredDays = new HashSet<>();
+    private long today;
+    private boolean loaded = false;
+
+    WindowedStats(HG plugin) {
+        this.plugin = plugin;
+        this.folder = new File(plugin.getDataFolder(), "leaderboard-windows");
+        for (Window window : Window.values()) {
+            Map<Stats, RankIndex> windowRanks = new EnumMap<>(Stats.class);
+            for (Stats stat : Stats.values()) {
+                windowRanks.put(stat, new RankIndex());
+            }
+            ranks.put(window, windowRanks);
+        }
+        this.today = currentDay();
+    }
+
+    /**
+     * Get the ranking of a stat within a window
+     *
+     * @param stat   Stat to get
+     * @param window Window to get
+     * @return Ranking of the stat
+     */
+    RankIndex getRank(Stats stat, Window window) {
+        return ranks.get(window).get(stat);
+    }
+
+    /**
+     * Add to a stat of a player in all windows
+     *
+     * @param stat   Stat to add to
+     * @param uuid   Uuid of player
+     * @param amount Amount to add
+     */
+    void add(Stats stat, UUID uuid, int amount) {
+        roll();
+        Bucket bucket = getBucket(today);
+        bucket.counts.get(stat).merge(uuid, amount, Integer::sum);
+        for (Map<Stats, RankIndex> windowRanks : ranks.values()) {
+            windowRanks.get(stat).add(uuid, amount);
+        }
+        dirtyDays.add(today);
+    }
+
+    /**
+     * Move all windows forward if the day has changed since they were last moved
+     */
+    void roll() {
+        long day = currentDay();
+        if (day <= today) return;
+        long previous = today;
+        today = day;
+        for (Bucket bucket : buckets) {
+            for (Window window : Window.values()) {
+                // Bucket just left this window
+                if (inWindow(bucket.day, previous, window) && !inWindow(bucket.day, day, window)) {
+                    subtract(bucket, window);
+                }
+            }
+        }
+        while (!buckets.isEmpty() && buckets.peekFirst().day <= day - MAX_DAYS) {
+            long retired = buckets.removeFirst().day;
+            dirtyDays.remove(retired);
+            retiredDays.add(retired);
+        }
+    }
+
+    private void subtract(Bucket bucket, Window window) {
+        Map<Stats, RankIndex> windowRanks = ranks.get(window);
+        bucket.counts.forEach((stat, counts) -> {
+            RankIndex rank = windowRanks.get(stat);
+            counts.forEach((uuid, value) -> {
+                rank.add(uuid, -value);
+                if (rank.getScore(uuid) <= 0) {
+                    rank.remove(uuid);
+                }
+            });
+        });
+    }
+
+    private Bucket getBucket(long day) {
+        Bucket last = buckets.peekLast();
+        if (last != null && last.day == day) return last;
+        Bucket bucket = new Bucket(day);
+        buckets.addLast(bucket);
+        return bucket;
+    }
+
+    /**
+     * Write changed buckets and delete retired buckets in the background
+     */
+    void flush() {
+        if (!loaded) return;
+        List<Bucket> changed = new ArrayList<>();
+        for (Bucket bucket : buckets) {
+            if (dirtyDays.contains(bucket.day)) {
+                changed.add(bucket.copy());
+            }
+        }
+        List<Long> retired = new ArrayList<>(retiredDays);
+        dirtyDays.clear();
+        retiredDays.clear();
+        if (changed.isEmpty() && retired.isEmpty()) return;
+
+        plugin.getIoExecutor().execute(() -> {
+            for (long day : retired) {
+                getFile(day).delete();
+            }
+            for (Bucket bucket : changed) {
+                try {
+                    write(bucket);
+                } catch (IOException e) {
+                    Util.warning("Failed to save leaderboard stats of day %s", LocalDate.ofEpochDay(bucket.day));
+                    Util.debug(e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Read all buckets in the background
+     * <p>Stats added while reading are kept, buckets read are added on top of them</p>
+     */
+    void load() {
+        plugin.getIoExecutor().execute(() -> {
+            List<Bucket> read = new ArrayList<>();
+            File[] files = folder.listFiles((dir, name) -> name.endsWith(".dat"));
+            if (files != null) {
+                long oldest = currentDay() - MAX_DAYS;
+                for (File file : files) {
+                    long day;
+                    try {
+                        day = Long.parseLong(file.getName().substring(0, file.getName().length() - 4));
+                    } catch (NumberFormatException e) {
+                        continue;
+                    }
+                    if (day <= oldest) {
+                        file.delete();
+                        continue;
+                    }
+                    try {
+                        read.add(read(file, day));
+                    } catch (IOException e) {
+                        Util.warning("Failed to read leaderboard stats of day %s", LocalDate.ofEpochDay(day));
+                        Util.debug(e);
+                    }
+                }
+            }
+            read.sort((a, b) -> Long.compare(a.day, b.day));
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                roll();
+                merge(read);
+                loaded = true;
+            });
+        });
+    }
+
+    private void merge(List<Bucket> read) {
+        Deque<Bucket> merged = new ArrayDeque<>();
+        for (Bucket bucket : read) {
+            if (bucket.day <= today - MAX_DAYS || bucket.day > today) continue;
+            // Stats added while loading are in today's bucket
+            Bucket existing = buckets.peekLast();
+            if (existing != null && existing.day == bucket.day) {
+                bucket.counts.forEach((stat, counts) -> counts.forEach((uuid, value) ->
+                        existing.counts.get(stat).merge(uuid, value, Integer::sum)));
+                dirtyDays.add(bucket.day);
+            } else {
+                merged.addLast(bucket);
+            }
+            for (Window window : Window.values()) {
+                if (!inWindow(bucket.day, today, window)) continue;
+                Map<Stats, RankIndex> windowRanks = ranks.get(window);
+                bucket.counts.forEach((stat, counts) -> {
+                    RankIndex rank = windowRanks.get(stat);
+                    counts.forEach(rank::add);
+                });
+            }
+        }
+        // Read buckets are all older than the buckets created since
+        while (!merged.isEmpty()) {
+            buckets.addFirst(merged.removeLast());
+        }
+    }
+
+    private void write(Bucket bucket) throws IOException {
+        Files.createDirectories(folder.toPath());
+        File file = getFile(bucket.day);
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            for (Stats stat : Stats.values()) {
+                Map<UUID, Integer> counts = bucket.counts.get(stat);
+                out.writeInt(counts.size());
+                for (Map.Entry<UUID, Integer> entry : counts.entrySet()) {
+                    out.writeLong(entry.getKey().getMostSignificantBits());
+                    out.writeLong(entry.getKey().getLeastSignificantBits());
+                    out.writeInt(entry.getValue());
+                }
+            }
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Bucket read(File file, long day) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a leaderboard stats file");
+            }
+            Bucket bucket = new Bucket(day);
+            for (Stats stat : Stats.values()) {
+                Map<UUID, Integer> counts = bucket.counts.get(stat);
+                int size = in.readInt();
+                for (int i = 0; i < size; i++) {
+                    counts.put(new UUID(in.readLong(), in.readLong()), in.readInt());
+                }
+            }
+            return bucket;
+        }
+    }
+
+    private File getFile(long day) {
+        return new File(folder, day + ".dat");
+    }
+
+    private static boolean inWindow(long day, long today, Window window) {
+        return day > today - window.getDays() && day <= today;
+    }
+
+    private static long currentDay() {
+        return LocalDate.now().toEpochDay();
+    }
+
+    private static int maxDays() {
+        int max = 0;
+        for (Window window : Window.values()) {
+            max = Math.max(max, window.getDays());
+        }
+        return max;
+    }
+
+    // Stats of one day
+    private static class Bucket {
+
+        private final long day;
+        private final Map<Stats, Map<UUID, Integer>> counts = new EnumMap<>(Stats.class);
+
+        private Bucket(long day) {
+            this.day = day;
+            for (Stats stat : Stats.values()) {
+                counts.put(stat, new HashMap<>());
+            }
+        }
+
+        private Bucket copy() {
+            Bucket copy = new Bucket(day);
+            counts.forEach((stat, map) -> copy.counts.get(stat).putAll(map));
+            return copy;
+        }
+
+    }
+
+}
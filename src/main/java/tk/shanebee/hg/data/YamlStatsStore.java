@@ -0,0 +1,86 @@
+package tk.shanebee.hg.data;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import tk.shanebee.hg.HG;
+import tk.shanebee.hg.data.Leaderboard.Stats;
+import tk.shanebee.hg.util.Util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * {@link StatsStore} saving stats to leaderboard.yml
+ * <p>The whole file is held in memory and written again on every save.</p>
+ */
+class YamlStatsStore implements StatsStore {
+
+    private final HG plugin;
+    private final File file;
+    private FileConfiguration config;
+
+    YamlStatsStore(HG plugin) {
+        this.plugin = plugin;
+        this.file = new File(plugin.getDataFolder(), "leaderboard.yml");
+    }
+
+    @Override
+    public void load(StatConsumer consumer) throws IOException {
+        if (!file.exists()) {
+            // Don't start over from an empty leaderboard when switching back from sqlite
+            if (new File(file.getPath() + ".migrated").exists()) {
+                Util.warning("leaderboard.yml was migrated to leaderboard.db, set leaderboard storage back to 'sqlite'");
+                Util.warning("or rename leaderboard.yml.migrated to leaderboard.yml to use it again (stats since the migration are only in leaderboard.db)");
+                throw new IOException("leaderboard.yml was migrated to leaderboard.db");
+            }
+            plugin.saveResource("leaderboard.yml", true);
+        }
+        config = YamlConfiguration.loadConfiguration(file);
+        for (Stats stat : Stats.values()) {
+            ConfigurationSection section = config.getConfigurationSection(getPath(stat));
+            if (section == null) continue;
+            for (String key : section.getKeys(false)) {
+                try {
+                    consumer.accept(stat, UUID.fromString(key), section.getInt(key));
+                } catch (IllegalArgumentException e) {
+                    Util.warning("Invalid uuid '%s' in leaderboard", key);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void save(Map<Stats, Map<UUID, Integer>> changes) throws IOException {
+        changes.forEach((stat, values) -> {
+            String path = getPath(stat) + ".";
+            values.forEach((uuid, value) -> config.set(path + uuid, value));
+        });
+        File temp = new File(file.getPath() + ".tmp");
+        config.save(temp);
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void close() {
+        config = null;
+    }
+
+    static String getPath(Stats stat) {
+        switch (stat) {
+            case KILLS:
+                return "Total-Kills";
+            case DEATHS:
+                return "Total-Deaths";
+            case GAMES:
+                return "Games-Played";
+            default:
+                return "Total-Wins";
+        }
+    }
+
+}
@@ -0,0 +1,358 @@
+package tk.shanebee.hg.game;
+
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.TileState;
+import org.bukkit.block.data.BlockData;
+import tk.shanebee.hg.data.JournalFile;
+import tk.shanebee.hg.data.TileContents;
+import tk.shanebee.hg.util.BlockUtils;
+import tk.shanebee.hg.util.Util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact journal of the original blocks changed in a {@link Game}
+ * <p>Each position is only recorded the first time it changes, keyed by its packed coordinates.
+ * Plain blocks are stored as an index into a palette of {@link BlockData},
+ * a full {@link BlockState} is only kept for tile entities.</p>
+ */
+public class BlockJournal {
+
+    private static final boolean TILE_STATES = Util.classExists("org.bukkit.block.TileState");
+    private static final int TILE_ENTRY = -1;
+
+    private World world;
+    private long[] positions = new long[64];
+    private int[] entries = new int[64];
+    private int size = 0;
+
+    // Open addressing index of position -> entry index + 1 (0 = empty slot)
+    private int[] index = new int[128];
+
+    private final List<BlockData> palette = new ArrayList<>();
+    private final Map<BlockData, Integer> paletteIds = new HashMap<>();
+    private final Map<Integer, BlockState> tileStates = new HashMap<>();
+    // Tile entity contents of entries loaded back from a journal file
+    private final Map<Integer, TileContents> tileContents = new HashMap<>();
+
+    private JournalFile file;
+
+    /**
+     * Record the original state of a block
+     * <p>If this position has already been recorded, the state is ignored</p>
+     *
+     * @param state State of the block before it was changed
+     * @return True if this position was not recorded yet
+     */
+    public boolean record(BlockState state) {
+        long position = pack(state.getX(), state.getY(), state.getZ());
+        int slot = findSlot(position);
+        if (index[slot] != 0) return false;
+
+        if (world == null) {
+            world = state.getWorld();
+        }
+        if (isTileState(state)) {
+            tileStates.put(add(slot, position, TILE_ENTRY), state);
+        } else {
+            add(slot, position, getPaletteId(state.getBlockData()));
+        }
+        if (file != null) {
+            file.append(position, state);
+        }
+        return true;
+    }
+
+    /**
+     * Load an entry read back from a journal file
+     * <p>Unlike {@link #record(BlockState)} this is not written to the journal file again.
+     * If this position was already loaded, the later entry replaces it (see {@link #override(World, JournalFile.Entry)})</p>
+     *
+     * @param world World of the entry
+     * @param entry Entry to load
+     */
+    public void load(World world, JournalFile.Entry entry) {
+        int slot = findSlot(entry.getPosition());
+        if (index[slot] != 0) {
+            replace(index[slot] - 1, entry);
+        } else {
+            put(world, entry);
+        }
+    }
+
+    /**
+     * Record the original block of a position, replacing the block recorded before if there is one
+     * <p>Used for changes found by comparing against a baseline, which knows the block from before the game,
+     * while a block recorded during the game may already have been changed by something that isn't recorded.</p>
+     *
+     * @param world World of the entry
+     * @param entry Original block of the position
+     */
+    public void override(World world, JournalFile.Entry entry) {
+        int slot = findSlot(entry.getPosition());
+        if (index[slot] == 0) {
+            record(world, entry);
+            return;
+        }
+        replace(index[slot] - 1, entry);
+        if (file != null) {
+            file.append(entry.getPosition(), entry.getBlockData(), entry.getContents());
+        }
+    }
+
+    private void replace(int entry, JournalFile.Entry replacement) {
+        entries[entry] = getPaletteId(replacement.getBlockData());
+        tileStates.remove(entry);
+        if (replacement.getContents() != null) {
+            tileContents.put(entry, replacement.getContents());
+        } else {
+            tileContents.remove(entry);
+        }
+    }
+
+    /**
+     * Record the original block of a position which was found to have changed
+     * <p>If this position has already been recorded, the entry is ignored</p>
+     *
+     * @param world World of the entry
+     * @param entry Original block of the position
+     * @return True if this position was not recorded yet
+     */
+    public boolean record(World world, JournalFile.Entry entry) {
+        if (!put(world, entry)) return false;
+        if (file != null) {
+            file.append(entry.getPosition(), entry.getBlockData(), entry.getContents());
+        }
+        return true;
+    }
+
+    private boolean put(World world, JournalFile.Entry entry) {
+        long position = entry.getPosition();
+        int slot = findSlot(position);
+        if (index[slot] != 0) return false;
+
+        if (this.world == null) {
+            this.world = world;
+        }
+        int added = add(slot, position, getPaletteId(entry.getBlockData()));
+        if (entry.getContents() != null) {
+            tileContents.put(added, entry.getContents());
+        }
+        return true;
+    }
+
+    /**
+     * Set the file new entries are written to
+     *
+     * @param file Journal file, or null to only keep entries in memory
+     */
+    public void setFile(JournalFile file) {
+        this.file = file;
+    }
+
+    /**
+     * Check if a block has already been recorded
+     *
+     * @param block Block to check
+     * @return True if the position of this block is in the journal
+     */
+    public boolean contains(Block block) {
+        return contains(block.getX(), block.getY(), block.getZ());
+    }
+
+    /**
+     * Check if a position has already been recorded
+     *
+     * @param x X coord of the position
+     * @param y Y coord of the position
+     * @param z Z coord of the position
+     * @return True if this position is in the journal
+     */
+    public boolean contains(int x, int y, int z) {
+        return size > 0 && index[findSlot(pack(x, y, z))] != 0;
+    }
+
+    /**
+     * Restore an entry of this journal back into the world
+     *
+     * <p>Physics are not applied, see {@link BlockUtils#restoreBlock(Block, BlockData)}</p>
+     *
+     * @param entry Index of the entry to restore
+     */
+    public void restore(int entry) {
+        int id = entries[entry];
+        if (id == TILE_ENTRY) {
+            BlockUtils.restoreState(tileStates.get(entry));
+        } else {
+            long position = positions[entry];
+            Block block = world.getBlockAt(getX(position), getY(position), getZ(position));
+            BlockUtils.restoreBlock(block, palette.get(id));
+            TileContents contents = tileContents.get(entry);
+            if (contents != null) {
+                contents.apply(block);
+            }
+        }
+    }
+
+    /**
+     * Get the world this journal records blocks in
+     *
+     * @return World of the recorded blocks, null if nothing was recorded yet
+     */
+    public World getWorld() {
+        return world;
+    }
+
+    /**
+     * Get the packed position of an entry
+     *
+     * @param entry Index of the entry
+     * @return Packed position of the entry
+     * @see #getX(long)
+     * @see #getY(long)
+     * @see #getZ(long)
+     */
+    public long getPosition(int entry) {
+        return positions[entry];
+    }
+
+    /**
+     * Get the original block data of an entry
+     *
+     * @param entry Index of the entry
+     * @return Original block data
+     */
+    public BlockData getBlockData(int entry) {
+        int id = entries[entry];
+        return id == TILE_ENTRY ? tileStates.get(entry).getBlockData() : palette.get(id);
+    }
+
+    /**
+     * Get the full original state of an entry
+     *
+     * @param entry Index of the entry
+     * @return Original state if this entry is a tile entity, otherwise null
+     */
+    public BlockState getTileState(int entry) {
+        return entries[entry] == TILE_ENTRY ? tileStates.get(entry) : null;
+    }
+
+    /**
+     * Get the amount of positions recorded in this journal
+     *
+     * @return Amount of recorded positions
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Clear this journal
+     */
+    public void clear() {
+        world = null;
+        positions = new long[64];
+        entries = new int[64];
+        index = new int[128];
+        size = 0;
+        palette.clear();
+        paletteIds.clear();
+        tileStates.clear();
+        tileContents.clear();
+        file = null;
+    }
+
+    // Add a new entry at a free index slot, returns the index of the entry
+    private int add(int slot, long position, int id) {
+        if (size == positions.length) {
+            positions = Arrays.copyOf(positions, size * 2);
+            entries = Arrays.copyOf(entries, size * 2);
+        }
+        int entry = size;
+        positions[entry] = position;
+        entries[entry] = id;
+        index[slot] = ++size;
+
+        if (size * 2 > index.length) {
+            rehash(index.length * 2);
+        }
+        return entry;
+    }
+
+    private int getPaletteId(BlockData data) {
+        Integer id = paletteIds.get(data);
+        if (id == null) {
+            id = palette.size();
+            palette.add(data);
+            paletteIds.put(data, id);
+        }
+        return id;
+    }
+
+    private int findSlot(long position) {
+        int mask = index.length - 1;
+        int slot = hash(position) & mask;
+        while (index[slot] != 0 && positions[index[slot] - 1] != position) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int length) {
+        index = new int[length];
+        int mask = length - 1;
+        for (int i = 0; i < size; i++) {
+            int slot = hash(positions[i]) & mask;
+            while (index[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            index[slot] = i + 1;
+        }
+    }
+
+    private static int hash(long position) {
+        long h = position * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static boolean isTileState(BlockState state) {
+        // Pre 1.14 there is no way to tell, so keep every full state
+        return !TILE_STATES || state instanceof TileState;
+    }
+
+    /**
+     * Pack block coordinates into a long
+     * <p>26 bits for x and z, 12 bits for y</p>
+     *
+     * @param x X coord
+     * @param y Y coord
+     * @param z Z coord
+     * @return Packed position
+     */
+    public static long pack(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    public static int getX(long position) {
+        return (int) (position >> 38);
+    }
+
+    public static int getY(long position) {
+        return (int) (position << 52 >> 52);
+    }
+
+    public static int getZ(long position) {
+        return (int) (position << 26 >> 38);
+    }
+
+}
@@ -3,6 +3,7 @@ package tk.shanebee.hg.game;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
+import org.bukkit.plugin.IllegalPluginAccessException;
 import org.bukkit.scoreboard.DisplaySlot;
 import org.bukkit.scoreboard.Objective;
 import org.bukkit.scoreboard.Scoreboard;
@@ -12,6 +13,7 @@ import org.bukkit.scoreboard.Team.OptionStatus;
 import tk.shanebee.hg.HG;
 import tk.shanebee.hg.data.Config;
 import tk.shanebee.hg.data.Language;
+import tk.shanebee.hg.util.MessageTemplate;
 import tk.shanebee.hg.util.Util;
 import tk.shanebee.hg.util.Validate;
 
@@ -33,6 +35,10 @@ public class Board {
     private final Team[] lines = new Team[15];
     private final Team team;
     private final String[] entries = new String[]{"&1&r", "&2&r", "&3&r", "&4&r", "&5&r", "&6&r", "&7&r", "&8&r", "&9&r", "&0&r", "&a&r", "&b&r", "&c&r", "&d&r", "&e&r"};
+    // Text last sent for each line and the title, only changes are sent to players again
+    private final String[] shownLines = new String[15];
+    private String shownTitle;
+    private boolean updateScheduled = false;
 
     @SuppressWarnings("ConstantConditions")
     public Board(Game game) {
@@ -88,18 +94,24 @@ public class Board {
      * @param title Title to set
      */
     public void setTitle(String title) {
+        if (title.equals(shownTitle)) return;
+        shownTitle = title;
         board.setDisplayName(Util.getColString(title));
     }
 
     /**
      * Set a specific line for this scoreboard
      * <p>Lines 1 - 15</p>
+     * <p>Nothing is sent to players if the line already shows this text</p>
      *
      * @param line Line to set (1 - 15)
      * @param text Text to put in line
      */
     public void setLine(int line, String text) {
         Validate.isBetween(line, 1, 15);
+        String shown = shownLines[line - 1];
+        if (text.equals(shown)) return;
+        shownLines[line - 1] = text;
         Team t = lines[line - 1];
         if (ChatColor.stripColor(text).length() > (128 / 2)) {
             String prefix = Util.getColString(text.substring(0, (128 / 2)));
@@ -111,15 +123,36 @@ public class Board {
             t.setPrefix(Util.getColString(text));
             t.setSuffix("");
         }
-        board.getScore(Util.getColString(entries[line - 1])).setScore(line);
+        if (shown == null) {
+            board.getScore(Util.getColString(entries[line - 1])).setScore(line);
+        }
+    }
+
+    /**
+     * Update this scoreboard on the next tick
+     * <p>All updates requested during the same tick are sent together</p>
+     */
+    public void scheduleUpdate() {
+        if (updateScheduled) return;
+        try {
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                updateScheduled = false;
+                updateBoard();
+            });
+            updateScheduled = true;
+        } catch (IllegalPluginAccessException ignore) {
+            // Plugin is disabling, no more ticks to wait for
+            updateBoard();
+        }
     }
 
     /**
      * Update this scoreboard
+     * <p>Only lines which changed are sent to players</p>
      */
     public void updateBoard() {
         Language lang = plugin.getLang();
-        String alive = "  " + lang.players_alive_num.replace("<num>", String.valueOf(game.getGamePlayerData().getPlayers().size()));
+        String alive = "  " + MessageTemplate.of(lang.players_alive_num).render("num", game.getGamePlayerData().getPlayers().size());
 
         setTitle(lang.scoreboard_title);
         setLine(15, " ");
@@ -67,11 +67,23 @@ public class Bound {
 	 * @return True if location is within this bound
 	 */
 	public boolean isInRegion(Location loc) {
-		if (!Objects.requireNonNull(loc.getWorld()).getName().equals(world)) return false;
 		int cx = loc.getBlockX();
 		int cy = loc.getBlockY();
 		int cz = loc.getBlockZ();
-		return (cx >= x && cx <= x2) && (cy >= y && cy <= y2) && (cz >= z && cz <= z2);
+		if (cx < x || cx > x2 || cy < y || cy > y2 || cz < z || cz > z2) return false;
+		return Objects.requireNonNull(loc.getWorld()).getName().equals(world);
+	}
+
+	/** Check if a block is within the region of this bound
+	 * @param block Block to check
+	 * @return True if block is within this bound
+	 */
+	public boolean isInRegion(Block block) {
+		int cx = block.getX();
+		int cy = block.getY();
+		int cz = block.getZ();
+		if (cx < x || cx > x2 || cy < y || cy > y2 || cz < z || cz > z2) return false;
+		return block.getWorld().getName().equals(world);
 	}
 
 	/**
@@ -102,7 +114,7 @@ public class Bound {
 	 */
 	@SuppressWarnings("unused")
 	public ArrayList<Location> getBlocks(Material type) {
-		World w = Bukkit.getWorld(world);
+		World w = getWorld();
 		ArrayList <Location> array = new ArrayList<>();
 		for (int x3 = x; x3 <= x2; x3++) {
 			for (int y3 = y; y3 <= y2; y3++) {
@@ -119,7 +131,8 @@ public class Bound {
 	}
 
 	/** Get the world of this bound
-	 * @return World of this bound
+	 * <p>The world is looked up by name, as it may be unloaded and loaded again</p>
+	 * @return World of this bound, null if it isn't loaded
 	 */
 	public World getWorld() {
 		return Bukkit.getWorld(world);
@@ -129,14 +142,14 @@ public class Bound {
 	 * @return Location of greater corner
 	 */
 	public Location getGreaterCorner() {
-		return new Location(Bukkit.getWorld(world), x2, y2, z2);
+		return new Location(getWorld(), x2, y2, z2);
 	}
 
 	/** Get the lesser corner of this bound
 	 * @return Location of lesser corner
 	 */
 	public Location getLesserCorner() {
-		return new Location(Bukkit.getWorld(world), x, y, z);
+		return new Location(getWorld(), x, y, z);
 	}
 
 	/** Get the center location of this bound
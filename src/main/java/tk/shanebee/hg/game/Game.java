@@ -18,7 +18,7 @@ import tk.shanebee.hg.managers.MobManager;
 import tk.shanebee.hg.managers.PlayerManager;
 import tk.shanebee.hg.tasks.ChestDropTask;
 import tk.shanebee.hg.tasks.FreeRoamTask;
-import tk.shanebee.hg.tasks.Rollback;
+import tk.shanebee.hg.tasks.GameScheduler;
 import tk.shanebee.hg.tasks.SpawnerTask;
 import tk.shanebee.hg.tasks.StartingTask;
 import tk.shanebee.hg.tasks.TimerTask;
@@ -47,6 +47,7 @@ public class Game {
     private StartingTask starting;
     private TimerTask timer;
     private ChestDropTask chestDrop;
+    private GameScheduler.Task restoreWait;
 
     // Data Objects
     final GameArenaData gameArenaData;
@@ -235,6 +236,14 @@ public class Game {
      * Start the free roam state of the game
      */
     public void startFreeRoam() {
+        // Players can't be let loose in a partly restored arena, hold the game until the restore is done
+        if (gameBlockData.isRestoring()) {
+            if (restoreWait == null) {
+                gamePlayerData.msgAll(lang.roam_waiting_restore);
+                restoreWait = plugin.getGameScheduler().runTaskTimer(this::awaitRestore, 1, 10);
+            }
+            return;
+        }
         gameArenaData.status = Status.BEGINNING;
         gameBlockData.updateLobbyBlock();
         gameArenaData.bound.removeEntities();
@@ -259,7 +268,23 @@ public class Game {
         timer = new TimerTask(this, gameArenaData.timer);
     }
 
+    private void awaitRestore() {
+        if (gameBlockData.isRestoring()) {
+            plugin.getRollbackScheduler().prioritize(this);
+            return;
+        }
+        restoreWait.cancel();
+        restoreWait = null;
+        if (gameArenaData.status == Status.COUNTDOWN) {
+            startFreeRoam();
+        }
+    }
+
     public void cancelTasks() {
+        if (restoreWait != null) {
+            restoreWait.cancel();
+            restoreWait = null;
+        }
         if (spawner != null) spawner.stop();
         if (timer != null) timer.stop();
         if (starting != null) starting.stop();
@@ -286,26 +311,22 @@ public class Game {
         gameArenaData.bound.removeEntities();
         List<UUID> win = new ArrayList<>();
         cancelTasks();
-        for (UUID uuid : gamePlayerData.players) {
-            Player player = Bukkit.getPlayer(uuid);
-            if (player != null) {
-                PlayerData playerData = playerManager.getPlayerData(uuid);
-                assert playerData != null;
-                Location previousLocation = playerData.getPreviousLocation();
-
-                gamePlayerData.heal(player);
-                playerData.restore(player);
-                win.add(uuid);
-                gamePlayerData.exit(player, previousLocation);
-                playerManager.removePlayerData(uuid);
-            }
+        for (Player player : gamePlayerData.players.values()) {
+            UUID uuid = player.getUniqueId();
+            PlayerData playerData = playerManager.getPlayerData(uuid);
+            assert playerData != null;
+            Location previousLocation = playerData.getPreviousLocation();
+
+            gamePlayerData.heal(player);
+            playerData.restore(player);
+            win.add(uuid);
+            gamePlayerData.exit(player, previousLocation);
+            playerManager.removePlayerData(uuid);
         }
 
-        for (UUID uuid : gamePlayerData.getSpectators()) {
-            Player spectator = Bukkit.getPlayer(uuid);
-            if (spectator != null) {
-                gamePlayerData.leaveSpectate(spectator);
-            }
+        // Leaving spectate removes them from the spectators
+        for (Player spectator : new ArrayList<>(gamePlayerData.spectators.values())) {
+            gamePlayerData.leaveSpectate(spectator);
         }
 
         if (gameArenaData.status == Status.RUNNING) {
@@ -353,10 +374,10 @@ public class Game {
         }
         if (gameBlockData.requiresRollback()) {
             if (plugin.isEnabled()) {
-                new Rollback(this);
+                gameBlockData.rollback();
             } else {
-                // Force rollback if server is stopping
-                gameBlockData.forceRollback();
+                // Save rollback for next load if server is stopping
+                gameBlockData.saveRollback();
             }
         } else {
             gameArenaData.status = Status.READY;
@@ -383,8 +404,8 @@ public class Game {
         if (status == Status.RUNNING || status == Status.BEGINNING || status == Status.COUNTDOWN) {
             if (isGameOver()) {
                 if (!death) {
-                    for (UUID uuid : gamePlayerData.players) {
-                        if (gamePlayerData.kills.get(Bukkit.getPlayer(uuid)) >= 1) {
+                    for (Player alive : gamePlayerData.players.values()) {
+                        if (gamePlayerData.kills.get(alive) >= 1) {
                             death = true;
                         }
                     }
@@ -414,11 +435,11 @@ public class Game {
 
     boolean isGameOver() {
         if (gamePlayerData.players.size() <= 1) return true;
-        for (UUID uuid : gamePlayerData.players) {
+        for (UUID uuid : gamePlayerData.players.keySet()) {
             Team team = Objects.requireNonNull(playerManager.getPlayerData(uuid)).getTeam();
 
             if (team != null && (team.getPlayers().size() >= gamePlayerData.players.size())) {
-                for (UUID u : gamePlayerData.players) {
+                for (UUID u : gamePlayerData.players.keySet()) {
                     if (!team.getPlayers().contains(u)) {
                         return false;
                     }
@@ -147,6 +147,11 @@ public class GameArenaData extends Data {
      */
     public void setStatus(Status status) {
         this.status = status;
+        if (status == Status.READY) {
+            game.gameBlockData.captureBaseline();
+        } else if (status == Status.ROLLBACK || status == Status.NOTREADY || status == Status.BROKEN) {
+            game.gameBlockData.discardBaseline();
+        }
         game.gameBlockData.updateLobbyBlock();
     }
 
@@ -197,9 +202,8 @@ public class GameArenaData extends Data {
 
     /**
      * Set the chest refill repeat time
-     * <p>NOTE: in 30 second increments</p>
      *
-     * @param chestRefillRepeat The increment for chest refills
+     * @param chestRefillRepeat Seconds between chest refills
      */
     public void setChestRefillRepeat(int chestRefillRepeat) {
         this.chestRefillRepeat = chestRefillRepeat;
@@ -216,9 +220,10 @@ public class GameArenaData extends Data {
 
     /**
      * Update scoreboards for players (including team scoreboards)
+     * <p>Updates are sent on the next tick, all updates requested during a tick are sent together</p>
      */
     public void updateBoards() {
-        game.gameArenaData.board.updateBoard();
+        game.gameArenaData.board.scheduleUpdate();
     }
 
 }
@@ -6,9 +6,7 @@ import org.bukkit.boss.BarStyle;
 import org.bukkit.boss.BossBar;
 import org.bukkit.entity.Player;
 import tk.shanebee.hg.HG;
-import tk.shanebee.hg.util.Util;
-
-import java.util.UUID;
+import tk.shanebee.hg.util.MessageTemplate;
 
 /**
  * Data holder for {@link BossBar BossBars}
@@ -16,11 +14,11 @@ import java.util.UUID;
 public class GameBarData extends Data {
 
     private BossBar bar;
-    private final String title;
+    private final MessageTemplate title;
 
     protected GameBarData(Game game) {
         super(game);
-        this.title = HG.getPlugin().getLang().bossbar;
+        this.title = MessageTemplate.of(HG.getPlugin().getLang().bossbar);
     }
 
     /**
@@ -31,16 +29,11 @@ public class GameBarData extends Data {
     public void createBossbar(int time) {
         int min = (time / 60);
         int sec = (time % 60);
-        String title = this.title.replace("<min>", String.valueOf(min)).replace("<sec>", String.valueOf(sec));
-        bar = Bukkit.createBossBar(Util.getColString(title), BarColor.GREEN, BarStyle.SEGMENTED_20);
-        for (UUID uuid : getGame().getGamePlayerData().getPlayers()) {
-            Player player = Bukkit.getPlayer(uuid);
-            assert player != null;
+        bar = Bukkit.createBossBar(title.render("min", min, "sec", sec), BarColor.GREEN, BarStyle.SEGMENTED_20);
+        for (Player player : getGame().getGamePlayerData().getPlayerHandles()) {
             bar.addPlayer(player);
         }
-        for (UUID uuid : getGame().getGamePlayerData().getSpectators()) {
-            Player player = Bukkit.getPlayer(uuid);
-            assert player != null;
+        for (Player player : getGame().getGamePlayerData().getSpectatorHandles()) {
             bar.addPlayer(player);
         }
     }
@@ -56,8 +49,7 @@ public class GameBarData extends Data {
         double remain = ((double) remaining) / ((double) getGame().gameArenaData.timer);
         int min = (remaining / 60);
         int sec = (remaining % 60);
-        String title = this.title.replace("<min>", String.valueOf(min)).replace("<sec>", String.valueOf(sec));
-        bar.setTitle(Util.getColString(title));
+        bar.setTitle(title.render("min", min, "sec", sec));
         bar.setProgress(remain);
         if (remain <= 0.5 && remain >= 0.2)
             bar.setColor(BarColor.YELLOW);
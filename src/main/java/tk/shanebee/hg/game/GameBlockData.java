@@ -3,6 +3,7 @@ package tk.shanebee.hg.game;
 import org.bukkit.ChatColor;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
 import org.bukkit.block.BlockState;
@@ -11,21 +12,38 @@ import org.bukkit.block.data.Directional;
 import org.bukkit.entity.ItemFrame;
 import org.bukkit.inventory.InventoryHolder;
 import tk.shanebee.hg.HG;
+import tk.shanebee.hg.Status;
+import tk.shanebee.hg.data.ArenaTemplate;
+import tk.shanebee.hg.data.Config;
 import tk.shanebee.hg.data.ItemFrameData;
+import tk.shanebee.hg.data.JournalFile;
+import tk.shanebee.hg.tasks.Rollback;
+import tk.shanebee.hg.tasks.SignUpdater;
+import tk.shanebee.hg.tasks.TemplateRestore;
+import tk.shanebee.hg.util.BlockUtils;
 import tk.shanebee.hg.util.Util;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Data class for holding a {@link Game Game's} blocks
  */
 public class GameBlockData extends Data {
 
+    private static final BlockFace[] NEIGHBOURS = new BlockFace[]{BlockFace.UP, BlockFace.DOWN,
+            BlockFace.EAST, BlockFace.WEST, BlockFace.NORTH, BlockFace.SOUTH};
+
     private final List<Location> chests = new ArrayList<>();
     private final List<Location> playerChests = new ArrayList<>();
-    private final List<BlockState> blocks = new ArrayList<>();
+    private final BlockJournal blocks = new BlockJournal();
+    private JournalFile journalFile;
+    private RegionBaseline baseline;
+    // Baseline currently being compared against after a game
+    private RegionBaseline diffing;
     private final List<ItemFrameData> itemFrameData = new ArrayList<>();
 
     // LobbySign
@@ -43,14 +61,165 @@ public class GameBlockData extends Data {
      * rollback at once, which can cause heavy amounts of lag.</p>
      */
     public void forceRollback() {
-        Collections.reverse(blocks);
-        for (BlockState state : blocks) {
-            state.update(true);
+        plugin.getRollbackScheduler().cancel(game);
+        recordChangesNow();
+        for (int i = blocks.size() - 1; i >= 0; i--) {
+            blocks.restore(i);
+        }
+    }
+
+    /**
+     * Start rolling back this game in the background
+     * <p>If a baseline of the arena was captured, changed blocks are found by comparing against it first.
+     * If the arena has a template and enough blocks were changed, it is restored from the template instead</p>
+     */
+    void rollback() {
+        if (baseline != null && baseline.isReady()) {
+            RegionBaseline region = baseline;
+            baseline = null;
+            diffing = region;
+            game.gameArenaData.setStatus(Status.ROLLBACK);
+            region.diff(changes -> {
+                // Rollback was saved or forced in the meantime
+                if (diffing != region) return;
+                diffing = null;
+                recordChanges(changes);
+                startRollback();
+            });
+            return;
+        }
+        startRollback();
+    }
+
+    private void startRollback() {
+        if (Config.rollbackTemplateThreshold >= 0 && blocks.size() >= Config.rollbackTemplateThreshold) {
+            ArenaTemplate template = new ArenaTemplate(plugin, game.gameArenaData.name);
+            if (template.exists()) {
+                new TemplateRestore(game, template);
+                return;
+            }
+        }
+        new Rollback(game);
+    }
+
+    /**
+     * Save the blocks which still need to be rolled back to disk
+     * <p>They will be rolled back in the background the next time the plugin loads.
+     * If journals aren't saved to disk, this will {@link #forceRollback() force a rollback} instead.</p>
+     */
+    public void saveRollback() {
+        recordChangesNow();
+        if (journalFile == null) {
+            forceRollback();
+            return;
+        }
+        plugin.getRollbackScheduler().cancel(game);
+        journalFile.close();
+        journalFile = null;
+        blocks.clear();
+    }
+
+    /**
+     * Resume the rollback of a journal left on disk when the plugin was last stopped
+     */
+    public void resumeRollback() {
+        if (!Config.rollbackSaveJournal || !JournalFile.exists(plugin, game.gameArenaData.name)) return;
+
+        Util.log("Found unfinished rollback for arena &b%s&7, restoring in the background", game.gameArenaData.name);
+        if (game.gameArenaData.status == Status.READY) {
+            game.gameArenaData.setStatus(Status.ROLLBACK);
+        }
+        journalFile = new JournalFile(plugin, game.gameArenaData.name);
+        JournalFile file = journalFile;
+        file.resume(plugin, entries -> {
+            // Game was unloaded before the journal was read
+            if (journalFile != file) return;
+            World world = game.gameArenaData.bound.getWorld();
+            for (JournalFile.Entry entry : entries) {
+                blocks.load(world, entry);
+            }
+            blocks.setFile(file);
+            new Rollback(game);
+        });
+    }
+
+    /**
+     * Capture a baseline of the arena, to compare against once the next game finishes
+     * <p>Only used if the diff engine is enabled, a baseline is only captured once while the arena stays ready</p>
+     */
+    void captureBaseline() {
+        if (!Config.rollbackDiffEngine || baseline != null) return;
+        RegionBaseline region = new RegionBaseline(plugin, game.gameArenaData.bound);
+        baseline = region;
+        region.capture(() -> {
+            Status status = game.gameArenaData.status;
+            // The game already started while capturing, some chunks may have been captured with changes
+            if (status != Status.READY && status != Status.WAITING && status != Status.COUNTDOWN) {
+                region.discard();
+                if (baseline == region) {
+                    baseline = null;
+                }
+            }
+        });
+    }
+
+    /**
+     * Discard the baseline of the arena, blocks are recorded as they change instead
+     */
+    void discardBaseline() {
+        if (baseline != null) {
+            baseline.discard();
+            baseline = null;
+        }
+    }
+
+    // Compare against the baseline right away if a game changed the arena since it was captured
+    private void recordChangesNow() {
+        Status status = game.gameArenaData.status;
+        if (diffing != null) {
+            recordChanges(diffing.diffNow());
+            diffing = null;
+        } else if (baseline != null && baseline.isReady() && (status == Status.RUNNING || status == Status.BEGINNING)) {
+            recordChanges(baseline.diffNow());
+        }
+        discardBaseline();
+    }
+
+    private void recordChanges(List<JournalFile.Entry> changes) {
+        if (changes.isEmpty()) return;
+        attachJournalFile();
+        World world = game.gameArenaData.bound.getWorld();
+        for (JournalFile.Entry change : changes) {
+            // Blocks recorded during the game may have been changed before, the baseline has the original
+            blocks.override(world, change);
+        }
+    }
+
+    // While a baseline is ready, changes are found by comparing against it instead
+    // If journals are saved, blocks are still recorded so a crash during the game doesn't lose them
+    private boolean isRecording() {
+        return baseline == null || !baseline.isReady() || Config.rollbackSaveJournal;
+    }
+
+    private void attachJournalFile() {
+        if (journalFile == null && Config.rollbackSaveJournal) {
+            journalFile = new JournalFile(plugin, game.gameArenaData.name);
+            blocks.setFile(journalFile);
         }
     }
 
+    /**
+     * Check if the arena of this game is still being rolled back
+     * <p>Blocks in the arena are locked until it has been fully restored</p>
+     *
+     * @return True if the arena is still rolling back
+     */
+    public boolean isRestoring() {
+        return plugin.getRollbackScheduler().isRollingBack(game);
+    }
+
     boolean requiresRollback() {
-        return !blocks.isEmpty() || !itemFrameData.isEmpty();
+        return !blocks.isEmpty() || !itemFrameData.isEmpty() || (baseline != null && baseline.isReady());
     }
 
     /**
@@ -70,9 +239,10 @@ public class GameBlockData extends Data {
         chests.clear();
     }
 
-    private void addState(BlockState s) {
-        if (s.getType() != Material.AIR) {
-            blocks.add(s);
+    private void addState(Block block) {
+        // Only the first state of a position is needed, skip the snapshot if we already have it
+        if (block.getType() != Material.AIR && !blocks.contains(block)) {
+            blocks.record(block.getState());
         }
     }
 
@@ -128,20 +298,57 @@ public class GameBlockData extends Data {
      * @param block The block that was broken
      */
     public void recordBlockBreak(Block block) {
-        Block top = block.getRelative(BlockFace.UP);
+        if (!isRecording()) return;
+        attachJournalFile();
+        recordAttached(block, null);
+        addState(block);
+    }
 
-        if (!top.getType().isSolid() || !top.getType().isBlock()) {
-            addState(block.getRelative(BlockFace.UP).getState());
+    /**
+     * Record a batch of blocks as broken in the arena to be restored when the game finishes
+     * <p>Meant for explosions, neighbours attached to these blocks are only checked once
+     * and blocks within the batch aren't checked as neighbours at all</p>
+     *
+     * @param broken The blocks that were broken
+     */
+    public void recordBlocks(Collection<Block> broken) {
+        if (!isRecording() || broken.isEmpty()) return;
+        attachJournalFile();
+        Set<Long> affected = new HashSet<>(broken.size() * 2);
+        for (Block block : broken) {
+            affected.add(BlockJournal.pack(block.getX(), block.getY(), block.getZ()));
         }
+        for (Block block : broken) {
+            recordAttached(block, affected);
+        }
+        for (Block block : broken) {
+            addState(block);
+        }
+    }
 
-        for (BlockFace bf : Util.faces) {
-            Block rel = block.getRelative(bf);
-
-            if (Util.isAttached(block, rel)) {
-                addState(rel.getState());
+    // Record neighbours which would break or fall along with this block
+    private void recordAttached(Block block, Set<Long> skip) {
+        for (BlockFace face : NEIGHBOURS) {
+            Block rel = block.getRelative(face);
+            if (skip != null && skip.contains(BlockJournal.pack(rel.getX(), rel.getY(), rel.getZ()))) continue;
+            if (!blocks.contains(rel) && BlockUtils.isAttached(rel, face.getOppositeFace())) {
+                blocks.record(rel.getState());
             }
         }
-        addState(block.getState());
+    }
+
+    /**
+     * Record a block updated by physics, to be restored when the game finishes
+     * <p>Only blocks which can fall or break off are recorded, each position only once.
+     * Neighbours are not checked, they get their own physics updates.</p>
+     *
+     * @param block The block being updated
+     */
+    public void recordPhysics(Block block) {
+        if (!isRecording() || !BlockUtils.isPhysicsSensitive(block.getType())) return;
+        if (blocks.contains(block)) return;
+        attachJournalFile();
+        blocks.record(block.getState());
     }
 
     /**
@@ -150,7 +357,9 @@ public class GameBlockData extends Data {
      * @param blockState BlockState to be added to the list
      */
     public void recordBlockPlace(BlockState blockState) {
-        blocks.add(blockState);
+        if (!isRecording()) return;
+        attachJournalFile();
+        blocks.record(blockState);
     }
 
     /**
@@ -167,12 +376,13 @@ public class GameBlockData extends Data {
     }
 
     /**
-     * Get a list of all recorded blocks
+     * Get the journal of all recorded blocks
+     * <p>Entries are in the order they were first recorded,
+     * rollbacks should restore them in reverse order</p>
      *
-     * @return List of all recorded blocks
+     * @return Journal of all recorded blocks
      */
-    public List<BlockState> getBlocks() {
-        Collections.reverse(blocks);
+    public BlockJournal getBlocks() {
         return blocks;
     }
 
@@ -181,6 +391,10 @@ public class GameBlockData extends Data {
      */
     public void resetBlocks() {
         this.blocks.clear();
+        if (journalFile != null) {
+            journalFile.complete();
+            journalFile = null;
+        }
     }
 
     /**
@@ -190,12 +404,12 @@ public class GameBlockData extends Data {
         this.itemFrameData.clear();
     }
 
+    // Signs are written on the next tick, only if their text changed
     void updateLobbyBlock() {
         if (sign2 == null || sign3 == null) return;
-        sign2.setLine(1, game.gameArenaData.status.getName());
-        sign3.setLine(1, ChatColor.BOLD + "" + game.getGamePlayerData().players.size() + "/" + game.gameArenaData.maxPlayers);
-        sign2.update(true);
-        sign3.update(true);
+        SignUpdater signUpdater = plugin.getSignUpdater();
+        signUpdater.update(sign2.getBlock(), null, game.gameArenaData.status.getName());
+        signUpdater.update(sign3.getBlock(), null, ChatColor.BOLD + "" + game.getGamePlayerData().players.size() + "/" + game.gameArenaData.maxPlayers);
     }
 
     /**
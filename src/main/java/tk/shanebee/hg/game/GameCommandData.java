@@ -5,7 +5,6 @@ import org.bukkit.entity.Player;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
-import java.util.UUID;
 
 /**
  * Data class for holding a {@link Game Game's} commands
@@ -60,8 +59,8 @@ public class GameCommandData extends Data {
                 command = command.replace("<player>", player.getName());
             }
             if (commandType == CommandType.START && command.contains("<player>")) {
-                for (UUID uuid : game.getGamePlayerData().players) {
-                    String newCommand = command.replace("<player>", Bukkit.getPlayer(uuid).getName());
+                for (Player gamePlayer : game.getGamePlayerData().players.values()) {
+                    String newCommand = command.replace("<player>", gamePlayer.getName());
                     Bukkit.dispatchCommand(Bukkit.getConsoleSender(), newCommand);
                 }
             } else
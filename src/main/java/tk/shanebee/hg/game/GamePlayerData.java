@@ -1,6 +1,7 @@
 package tk.shanebee.hg.game;
 
 import io.papermc.lib.PaperLib;
+import net.md_5.bungee.api.chat.BaseComponent;
 import org.bukkit.*;
 import org.bukkit.block.BlockFace;
 import org.bukkit.entity.Player;
@@ -18,6 +19,7 @@ import tk.shanebee.hg.events.PlayerLeaveGameEvent;
 import tk.shanebee.hg.game.GameCommandData.CommandType;
 import tk.shanebee.hg.gui.SpectatorGUI;
 import tk.shanebee.hg.managers.PlayerManager;
+import tk.shanebee.hg.util.Text;
 import tk.shanebee.hg.util.Util;
 import tk.shanebee.hg.util.Vault;
 
@@ -31,17 +33,28 @@ public class GamePlayerData extends Data {
     private final PlayerManager playerManager;
     private final SpectatorGUI spectatorGUI;
 
-    // Player Lists
-    final List<UUID> players = new ArrayList<>();
-    final List<UUID> spectators = new ArrayList<>();
-    // This list contains all players who have joined the arena
+    // Players and spectators in join order, with their cached Bukkit players
+    // Players who quit the server leave the game, so these handles are always online
+    final Map<UUID, Player> players = new LinkedHashMap<>();
+    final Map<UUID, Player> spectators = new LinkedHashMap<>();
+    // This map contains all players who have joined the arena
     // Will be used to broadcast messages even if a player is no longer in the game
-    final List<UUID> allPlayers = new ArrayList<>();
+    // Handles are cleared when a player quits the server
+    final Map<UUID, Player> allPlayers = new LinkedHashMap<>();
+    private final Set<UUID> playerView = Collections.unmodifiableSet(players.keySet());
+    private final Set<UUID> spectatorView = Collections.unmodifiableSet(spectators.keySet());
+    private final Collection<Player> playerHandles = Collections.unmodifiableCollection(players.values());
+    private final Collection<Player> spectatorHandles = Collections.unmodifiableCollection(spectators.values());
 
     // Data lists
     final Map<Player, Integer> kills = new HashMap<>();
     final Map<String, Team> teams = new HashMap<>();
 
+    // Messages broadcast during the current tick, cleared on the next tick
+    // Messages broadcast this tick, per group of recipients
+    private final Set<String> broadcasts = new HashSet<>();
+    private final Set<String> playerBroadcasts = new HashSet<>();
+
     protected GamePlayerData(Game game) {
         super(game);
         this.playerManager = plugin.getPlayerManager();
@@ -51,12 +64,23 @@ public class GamePlayerData extends Data {
     // TODO Data methods
 
     /**
-     * Get a list of all players in the game
+     * Get all players in the game
+     * <p>This is a read-only view, copy it before leaving players while iterating</p>
+     *
+     * @return UUIDs of all players in game, in join order
+     */
+    public Set<UUID> getPlayers() {
+        return playerView;
+    }
+
+    /**
+     * Get all players in the game as Bukkit players
+     * <p>This is a read-only view, copy it before leaving players while iterating</p>
      *
-     * @return UUID list of all players in game
+     * @return All players in game, in join order
      */
-    public List<UUID> getPlayers() {
-        return players;
+    public Collection<Player> getPlayerHandles() {
+        return playerHandles;
     }
 
     void clearPlayers() {
@@ -65,12 +89,34 @@ public class GamePlayerData extends Data {
     }
 
     /**
-     * Get a list of all players currently spectating the game
+     * Get all players currently spectating the game
+     * <p>This is a read-only view, copy it before removing spectators while iterating</p>
      *
-     * @return List of spectators
+     * @return UUIDs of spectators
      */
-    public List<UUID> getSpectators() {
-        return new ArrayList<>(this.spectators);
+    public Set<UUID> getSpectators() {
+        return spectatorView;
+    }
+
+    /**
+     * Get all players currently spectating the game as Bukkit players
+     * <p>This is a read-only view, copy it before removing spectators while iterating</p>
+     *
+     * @return Spectators of the game
+     */
+    public Collection<Player> getSpectatorHandles() {
+        return spectatorHandles;
+    }
+
+    /**
+     * Forget the cached Bukkit player of a player who quit the server
+     *
+     * @param uuid UUID of the player who quit
+     */
+    public void removeHandle(UUID uuid) {
+        if (allPlayers.containsKey(uuid)) {
+            allPlayers.put(uuid, null);
+        }
     }
 
     void clearSpectators() {
@@ -105,10 +151,8 @@ public class GamePlayerData extends Data {
      * Respawn all players in the game back to spawn points
      */
     public void respawnAll() {
-        for (UUID u : players) {
-            Player p = Bukkit.getPlayer(u);
-            if (p != null)
-                p.teleport(pickSpawn());
+        for (Player p : players.values()) {
+            p.teleport(pickSpawn());
         }
     }
 
@@ -152,17 +196,19 @@ public class GamePlayerData extends Data {
 
     /**
      * Send a message to all players/spectators in the game
+     * <p>The message is built once for all players,
+     * sending the same message again during the same tick does nothing.</p>
      *
      * @param message Message to send
      */
     public void msgAll(String message) {
-        List<UUID> allPlayers = new ArrayList<>();
-        allPlayers.addAll(players);
-        allPlayers.addAll(spectators);
-        for (UUID u : allPlayers) {
-            Player p = Bukkit.getPlayer(u);
-            if (p != null)
-                Util.scm(p, message);
+        BaseComponent[] components = prepareBroadcast(broadcasts, message);
+        if (components == null) return;
+        for (Player p : players.values()) {
+            p.spigot().sendMessage(components);
+        }
+        for (Player p : spectators.values()) {
+            p.spigot().sendMessage(components);
         }
     }
 
@@ -170,17 +216,47 @@ public class GamePlayerData extends Data {
      * Sends a message to all players/spectators
      * <b>Includes players who have died and left the game.
      * Used for broadcasting win messages</b>
+     * <p>The message is built once for all players,
+     * sending the same message again during the same tick does nothing.</p>
      *
      * @param message Message to send
      */
     public void msgAllPlayers(String message) {
-        List<UUID> allPlayers = new ArrayList<>(this.allPlayers);
-        allPlayers.addAll(this.spectators);
-        for (UUID u : allPlayers) {
-            Player p = Bukkit.getPlayer(u);
-            if (p != null)
-                Util.scm(p, lang.prefix + message);
+        BaseComponent[] components = prepareBroadcast(playerBroadcasts, lang.prefix + message);
+        if (components == null) return;
+        for (Map.Entry<UUID, Player> entry : allPlayers.entrySet()) {
+            Player p = entry.getValue();
+            if (p == null) {
+                // Quit the server since, they may have come back
+                p = Bukkit.getPlayer(entry.getKey());
+                if (p == null) continue;
+                entry.setValue(p);
+            }
+            p.spigot().sendMessage(components);
         }
+        for (Map.Entry<UUID, Player> entry : spectators.entrySet()) {
+            if (!allPlayers.containsKey(entry.getKey())) {
+                entry.getValue().spigot().sendMessage(components);
+            }
+        }
+    }
+
+    // Build a message to broadcast, null if it is empty or was already broadcast to the same recipients this tick
+    private BaseComponent[] prepareBroadcast(Set<String> sent, String message) {
+        if (message.isEmpty()) return null;
+        if (broadcasts.isEmpty() && playerBroadcasts.isEmpty()) {
+            try {
+                Bukkit.getScheduler().runTask(plugin, () -> {
+                    broadcasts.clear();
+                    playerBroadcasts.clear();
+                });
+            } catch (IllegalPluginAccessException ignore) {
+                // Plugin is disabling, no more ticks to coalesce messages in
+                return Text.components(message);
+            }
+        }
+        if (!sent.add(message)) return null;
+        return Text.components(message);
     }
 
     Location pickSpawn() {
@@ -200,9 +276,8 @@ public class GamePlayerData extends Data {
     boolean containsPlayer(Location location) {
         if (location == null) return false;
 
-        for (UUID u : players) {
-            Player p = Bukkit.getPlayer(u);
-            if (p != null && p.getLocation().getBlock().equals(location.getBlock()))
+        for (Player p : players.values()) {
+            if (p.getLocation().getBlock().equals(location.getBlock()))
                 return true;
         }
         return false;
@@ -231,6 +306,16 @@ public class GamePlayerData extends Data {
         this.kills.put(player, this.kills.get(player) + 1);
     }
 
+    /**
+     * Get the amount of kills a player has in this game
+     *
+     * @param player Player to get kills for
+     * @return Amount of kills
+     */
+    public int getKills(Player player) {
+        return this.kills.getOrDefault(player, 0);
+    }
+
     // TODO Game methods
 
     /**
@@ -251,14 +336,14 @@ public class GamePlayerData extends Data {
     public void join(Player player, boolean command) {
         GameArenaData gameArenaData = game.getGameArenaData();
         Status status = gameArenaData.getStatus();
-        if (status != Status.WAITING && status != Status.STOPPED && status != Status.COUNTDOWN && status != Status.READY) {
+        if (status != Status.WAITING && status != Status.STOPPED && status != Status.COUNTDOWN && status != Status.READY && status != Status.RESTORING) {
             Util.scm(player, lang.arena_not_ready);
             if ((status == Status.RUNNING || status == Status.BEGINNING) && Config.spectateEnabled) {
                 Util.scm(player, lang.arena_spectate.replace("<arena>", game.gameArenaData.getName()));
             }
         } else if (gameArenaData.maxPlayers <= players.size()) {
             Util.scm(player, "&c" + gameArenaData.getName() + " " + lang.game_full);
-        } else if (!players.contains(player.getUniqueId())) {
+        } else if (!players.containsKey(player.getUniqueId())) {
             if (!vaultCheck(player)) {
                 return;
             }
@@ -273,8 +358,8 @@ public class GamePlayerData extends Data {
             }
 
             UUID uuid = player.getUniqueId();
-            players.add(uuid);
-            allPlayers.add(uuid);
+            players.put(uuid, player);
+            allPlayers.put(uuid, player);
 
             Location loc = pickSpawn();
             if (loc.getBlock().getRelative(BlockFace.DOWN).getType() == Material.AIR) {
@@ -282,61 +367,73 @@ public class GamePlayerData extends Data {
                     loc.setY(loc.getY() - 1);
                 }
             }
-            Location previousLocation = player.getLocation();
-
-            // Teleport async into the arena so it loads a little more smoothly
-            PaperLib.teleportAsync(player, loc).thenAccept(a -> {
-
-                PlayerData playerData = new PlayerData(player, game);
-                if (command && Config.savePreviousLocation) {
-                    playerData.setPreviousLocation(previousLocation);
-                }
-                playerManager.addPlayerData(playerData);
-                gameArenaData.board.setBoard(player);
-
-                heal(player);
-                freeze(player);
-                kills.put(player, 0);
-
-                if (Config.enableleaveitem){
-                    ItemStack leaveitem = new ItemStack(Objects.requireNonNull(Material.getMaterial(Config.leaveitemtype)), 1);
-                    ItemMeta commeta = leaveitem.getItemMeta();
-                    assert commeta != null;
-                    commeta.setDisplayName(lang.leave_game);
-                    leaveitem.setItemMeta(commeta);
-                    player.getInventory().setItem(8, leaveitem);
+            PlayerData playerData = new PlayerData(player, game);
+            if (command && Config.savePreviousLocation) {
+                playerData.setPreviousLocation(player.getLocation());
+            }
+            // Registered right away, their inventory is already cleared and they must not be able to join again
+            playerManager.addPlayerData(playerData);
+
+            // Save their data before they enter, so it can be restored if the game never finishes
+            // then teleport async into the arena so it loads a little more smoothly
+            plugin.getPlayerSnapshots().save(playerData).thenRun(() -> Bukkit.getScheduler().runTask(plugin, () -> {
+                if (!player.isOnline()) {
+                    // Left while their data was saving, it will be restored when they log back in
+                    players.remove(uuid);
+                    allPlayers.remove(uuid);
+                    playerManager.removePlayerData(uuid);
+                    return;
                 }
+                PaperLib.teleportAsync(player, loc).thenAccept(a -> {
+                    // Left the game while teleporting
+                    if (playerManager.getPlayerData(uuid) != playerData) return;
+
+                    gameArenaData.board.setBoard(player);
+
+                    heal(player);
+                    freeze(player);
+                    kills.put(player, 0);
+
+                    if (Config.enableleaveitem){
+                        ItemStack leaveitem = new ItemStack(Objects.requireNonNull(Config.leaveItem), 1);
+                        ItemMeta commeta = leaveitem.getItemMeta();
+                        assert commeta != null;
+                        commeta.setDisplayName(lang.leave_game);
+                        leaveitem.setItemMeta(commeta);
+                        player.getInventory().setItem(8, leaveitem);
+                    }
 
-                if (Config.enableforcestartitem && player.hasPermission("hg.forcestart")) {
-                    ItemStack start = new ItemStack(Objects.requireNonNull(Material.getMaterial(Config.forcestartitem)), 1);
-                    ItemMeta meta = start.getItemMeta();
-                    assert meta != null;
-                    meta.setDisplayName(lang.force_start);
-                    start.setItemMeta(meta);
-                    player.getInventory().setItem(0, start);
-                }
+                    if (Config.enableforcestartitem && player.hasPermission("hg.forcestart")) {
+                        ItemStack start = new ItemStack(Objects.requireNonNull(Config.forceStartItem), 1);
+                        ItemMeta meta = start.getItemMeta();
+                        assert meta != null;
+                        meta.setDisplayName(lang.force_start);
+                        start.setItemMeta(meta);
+                        player.getInventory().setItem(0, start);
+                    }
 
-                if (players.size() == 1 && status == Status.READY)
-                    gameArenaData.setStatus(Status.WAITING);
-                if (players.size() >= game.gameArenaData.minPlayers && (status == Status.WAITING || status == Status.READY)) {
-                    game.startPreGame();
-                } else if (status == Status.WAITING) {
-                    String broadcast = lang.player_joined_game
-                            .replace("<arena>", gameArenaData.getName())
-                            .replace("<player>", player.getName()) + (gameArenaData.minPlayers - players.size() <= 0 ? "!" : ":" +
-                            lang.players_to_start.replace("<amount>", String.valueOf((gameArenaData.minPlayers - players.size()))));
-                    if (Config.broadcastJoinMessages) {
-                        Util.broadcast(broadcast);
-                    } else {
-                        msgAll(broadcast);
+                    if (players.size() == 1 && (status == Status.READY || status == Status.RESTORING))
+                        gameArenaData.setStatus(Status.WAITING);
+                    if (players.size() >= game.gameArenaData.minPlayers && (status == Status.WAITING || status == Status.READY || status == Status.RESTORING)) {
+                        game.startPreGame();
+                    } else if (status == Status.WAITING) {
+                        String broadcast = lang.player_joined_game
+                                .replace("<arena>", gameArenaData.getName())
+                                .replace("<player>", player.getName()) + (gameArenaData.minPlayers - players.size() <= 0 ? "!" : ":" +
+                                lang.players_to_start.replace("<amount>", String.valueOf((gameArenaData.minPlayers - players.size()))));
+                        if (Config.broadcastJoinMessages) {
+                            Util.broadcast(broadcast);
+                        } else {
+                            msgAll(broadcast);
+                        }
                     }
-                }
-                kitHelp(player);
+                    kitHelp(player);
 
-                game.gameBlockData.updateLobbyBlock();
-                game.gameArenaData.updateBoards();
-                game.gameCommandData.runCommands(CommandType.JOIN, player);
-            });
+                    game.gameBlockData.updateLobbyBlock();
+                    game.gameArenaData.updateBoards();
+                    game.gameCommandData.runCommands(CommandType.JOIN, player);
+                });
+            }));
         }
     }
 
@@ -410,23 +507,21 @@ public class GamePlayerData extends Data {
         if (playerManager.hasPlayerData(uuid)) {
             playerManager.transferPlayerDataToSpectator(uuid);
         } else {
-            playerManager.addSpectatorData(new PlayerData(spectator, game));
+            PlayerData playerData = new PlayerData(spectator, game);
+            plugin.getPlayerSnapshots().save(playerData);
+            playerManager.addSpectatorData(playerData);
         }
-        this.spectators.add(uuid);
+        this.spectators.put(uuid, spectator);
         spectator.setGameMode(GameMode.SURVIVAL);
         spectator.setCollidable(false);
         if (Config.spectateFly)
             spectator.setAllowFlight(true);
 
         if (Config.spectateHide) {
-            for (UUID u : players) {
-                Player player = Bukkit.getPlayer(u);
-                if (player == null) continue;
+            for (Player player : players.values()) {
                 player.hidePlayer(plugin, spectator);
             }
-            for (UUID u : spectators) {
-                Player player = Bukkit.getPlayer(u);
-                if (player == null) continue;
+            for (Player player : spectators.values()) {
                 player.hidePlayer(plugin, spectator);
             }
         }
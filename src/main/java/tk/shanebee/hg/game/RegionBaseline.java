@@ -0,0 +1,160 @@
+package tk.shanebee.hg.game;
+
+import io.papermc.lib.PaperLib;
+import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import tk.shanebee.hg.HG;
+import tk.shanebee.hg.data.ChunkCapture;
+import tk.shanebee.hg.data.JournalFile;
+import tk.shanebee.hg.data.TileContents;
+import tk.shanebee.hg.util.Util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Snapshot of an arena's {@link Bound} taken while it is ready
+ * <p>After a game the arena is captured again and compared against this baseline,
+ * which finds every changed block no matter what changed it, without recording anything during the game.
+ * Comparing happens in parallel off the main thread.</p>
+ */
+class RegionBaseline {
+
+    private final HG plugin;
+    private final World world;
+    private final int[] box;
+    private final int minCX;
+    private final int minCZ;
+    private final int width;
+    private final ChunkCapture[] baseline;
+    private boolean ready = false;
+    private boolean discarded = false;
+
+    RegionBaseline(HG plugin, Bound bound) {
+        this.plugin = plugin;
+        this.world = bound.getWorld();
+        this.box = ChunkCapture.getBox(bound);
+        this.minCX = box[0] >> 4;
+        this.minCZ = box[2] >> 4;
+        this.width = (box[3] >> 4) - minCX + 1;
+        int depth = (box[5] >> 4) - minCZ + 1;
+        this.baseline = new ChunkCapture[width * depth];
+    }
+
+    /**
+     * Capture the baseline, loading chunks asynchronously where possible
+     *
+     * @param callback Called on the main thread once the baseline is captured, unless it was discarded before
+     */
+    void capture(Runnable callback) {
+        captureAsync(baseline).whenComplete((v, ex) -> Bukkit.getScheduler().runTask(plugin, () -> {
+            if (discarded) return;
+            if (ex != null) {
+                Util.debug(ex instanceof Exception ? (Exception) ex : new Exception(ex));
+                return;
+            }
+            ready = true;
+            callback.run();
+        }));
+    }
+
+    /**
+     * Check if this baseline has been fully captured
+     *
+     * @return True if ready to be compared against
+     */
+    boolean isReady() {
+        return ready && !discarded;
+    }
+
+    /**
+     * Discard this baseline, a capture in progress will not complete
+     */
+    void discard() {
+        discarded = true;
+    }
+
+    /**
+     * Capture the arena again and compare it against this baseline in the background
+     *
+     * @param callback Called on the main thread with the original blocks of all changed positions
+     */
+    void diff(Consumer<List<JournalFile.Entry>> callback) {
+        ChunkCapture[] current = new ChunkCapture[baseline.length];
+        captureAsync(current)
+                .thenApplyAsync(v -> compareAll(current), ForkJoinPool.commonPool())
+                .whenComplete((changes, ex) -> Bukkit.getScheduler().runTask(plugin, () -> {
+                    if (ex != null) {
+                        Util.warning("Failed to compare arena against its baseline, blocks will not be restored");
+                        Util.debug(ex instanceof Exception ? (Exception) ex : new Exception(ex));
+                        callback.accept(new ArrayList<>());
+                        return;
+                    }
+                    callback.accept(changes);
+                }));
+    }
+
+    /**
+     * Capture the arena again and compare it against this baseline right away
+     * <p>Only to be used while the server is stopping, as chunks are loaded on the main thread</p>
+     *
+     * @return Original blocks of all changed positions
+     */
+    List<JournalFile.Entry> diffNow() {
+        ChunkCapture[] current = new ChunkCapture[baseline.length];
+        for (int i = 0; i < current.length; i++) {
+            current[i] = new ChunkCapture(world.getChunkAt(minCX + i % width, minCZ + i / width), box);
+        }
+        return ForkJoinPool.commonPool().submit(() -> compareAll(current)).join();
+    }
+
+    private CompletableFuture<Void> captureAsync(ChunkCapture[] captures) {
+        CompletableFuture<?>[] loads = new CompletableFuture<?>[captures.length];
+        for (int i = 0; i < captures.length; i++) {
+            int index = i;
+            loads[i] = PaperLib.getChunkAtAsync(world, minCX + i % width, minCZ + i / width)
+                    .thenAccept(chunk -> captures[index] = new ChunkCapture(chunk, box));
+        }
+        return CompletableFuture.allOf(loads);
+    }
+
+    private List<JournalFile.Entry> compareAll(ChunkCapture[] current) {
+        return IntStream.range(0, baseline.length).parallel()
+                .mapToObj(i -> compare(baseline[i], current[i]))
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    // Changed positions of a chunk, from the top down so a rollback (which runs backwards) restores from the bottom up
+    private List<JournalFile.Entry> compare(ChunkCapture before, ChunkCapture after) {
+        List<JournalFile.Entry> changes = new ArrayList<>();
+        ChunkSnapshot was = before.getSnapshot();
+        ChunkSnapshot now = after.getSnapshot();
+        int minX = Math.max(was.getX() << 4, box[0]);
+        int maxX = Math.min((was.getX() << 4) + 15, box[3]);
+        int minZ = Math.max(was.getZ() << 4, box[2]);
+        int maxZ = Math.min((was.getZ() << 4) + 15, box[5]);
+        for (int y = box[4]; y >= box[1]; y--) {
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int x = minX; x <= maxX; x++) {
+                    long position = BlockJournal.pack(x, y, z);
+                    TileContents contents = before.getContents(position);
+                    BlockData data = was.getBlockData(x & 15, y, z & 15);
+                    // Contents can't be compared, so always restore them
+                    if (contents != null || !data.equals(now.getBlockData(x & 15, y, z & 15))) {
+                        changes.add(new JournalFile.Entry(position, data, contents));
+                    }
+                }
+            }
+        }
+        return changes;
+    }
+
+}
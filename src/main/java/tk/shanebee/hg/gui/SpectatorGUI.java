@@ -17,7 +17,6 @@ import tk.shanebee.hg.game.Game;
 import tk.shanebee.hg.util.Util;
 
 import java.util.Arrays;
-import java.util.UUID;
 
 public class SpectatorGUI implements InventoryHolder, Listener {
 
@@ -39,9 +38,7 @@ public class SpectatorGUI implements InventoryHolder, Listener {
     private void initializeItems() {
         inv.clear();
         int i = 0;
-        for (UUID uuid : game.getGamePlayerData().getPlayers()) {
-            Player player = Bukkit.getPlayer(uuid);
-            if (player == null) continue;
+        for (Player player : game.getGamePlayerData().getPlayerHandles()) {
             inv.setItem(i, getHead(player));
             i++;
         }
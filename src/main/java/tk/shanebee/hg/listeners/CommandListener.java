@@ -141,6 +141,25 @@ public class CommandListener implements CommandExecutor, TabCompleter {
 					}
 					return matchesChestRefill;
 				}
+			} else if (args[0].equalsIgnoreCase("template")) {
+				ArrayList<String> matchesTemplate = new ArrayList<>();
+				if (args.length == 2) {
+					for (Game game : plugin.getGames()) {
+						String name = game.getGameArenaData().getName();
+						if (StringUtil.startsWithIgnoreCase(name, args[1])) {
+							matchesTemplate.add(name);
+						}
+					}
+					return matchesTemplate;
+				}
+				if (args.length == 3) {
+					for (String action : new String[]{"save", "restore"}) {
+						if (StringUtil.startsWithIgnoreCase(action, args[2])) {
+							matchesTemplate.add(action);
+						}
+					}
+					return matchesTemplate;
+				}
 			} else if (args[0].equalsIgnoreCase("bordersize")) {
 				ArrayList<String> matchesDelete = new ArrayList<>();
 				if (args.length == 2) {
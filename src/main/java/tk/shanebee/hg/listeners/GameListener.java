@@ -27,7 +27,6 @@ import tk.shanebee.hg.data.PlayerData;
 import tk.shanebee.hg.events.ChestOpenEvent;
 import tk.shanebee.hg.events.PlayerDeathGameEvent;
 import tk.shanebee.hg.game.Game;
-import tk.shanebee.hg.game.GameArenaData;
 import tk.shanebee.hg.game.GameBlockData;
 import tk.shanebee.hg.game.GameCommandData.CommandType;
 import tk.shanebee.hg.game.GamePlayerData;
@@ -39,7 +38,6 @@ import tk.shanebee.hg.util.Util;
 
 import java.util.Collections;
 import java.util.Objects;
-import java.util.UUID;
 
 /**
  * Internal event listener
@@ -95,51 +93,54 @@ public class GameListener implements Listener {
 
 	private void checkStick(Game g) {
 		if (Config.playersfortrackingstick == g.getGamePlayerData().getPlayers().size()) {
-			for (UUID u : g.getGamePlayerData().getPlayers()) {
-				Player player = Bukkit.getPlayer(u);
-				if (player != null) {
-					Util.scm(player, lang.track_bar);
-					Util.scm(player, lang.track_new1);
-					Util.scm(player, lang.track_new2);
-					Util.scm(player, lang.track_bar);
-					player.getInventory().addItem(trackingStick);
-				}
+			for (Player player : g.getGamePlayerData().getPlayerHandles()) {
+				Util.scm(player, lang.track_bar);
+				Util.scm(player, lang.track_new1);
+				Util.scm(player, lang.track_new2);
+				Util.scm(player, lang.track_bar);
+				player.getInventory().addItem(trackingStick);
 			}
 		}
 	}
 
 	@EventHandler(priority = EventPriority.HIGHEST)
-	private void onAttack(EntityDamageByEntityEvent event) {
+	private void onDamage(EntityDamageEvent event) {
 		Entity defender = event.getEntity();
-		Entity damager = event.getDamager();
-
-		if (damager instanceof Player) {
-			if (playerManager.hasSpectatorData(((Player) damager))) {
-				event.setCancelled(true);
+		Entity damager = null;
+		if (event instanceof EntityDamageByEntityEvent) {
+			damager = ((EntityDamageByEntityEvent) event).getDamager();
+			if (damager instanceof Player) {
+				PlayerData damagerData = playerManager.getData(damager.getUniqueId());
+				if (damagerData != null && playerManager.isSpectator(damagerData)) {
+					event.setCancelled(true);
+					return;
+				}
+			}
+			// Stop players from removing items from item frames
+			if (defender instanceof Hanging) {
+				handleItemFrame((Hanging) defender, event, !Config.itemframe_take);
 				return;
 			}
 		}
-		if (defender instanceof Player) {
-			Player player = (Player) defender;
-			PlayerData playerData = playerManager.getPlayerData(player);
-
-			if (playerData != null) {
-				Game game = playerData.getGame();
+		if (!(defender instanceof Player)) return;
 
-				if (game.getGameArenaData().getStatus() != Status.RUNNING) {
-					event.setCancelled(true);
-				} else if (event.getFinalDamage() >= player.getHealth()) {
-					if (hasTotem(player)) return;
-					event.setCancelled(true);
-					processDeath(player, game, damager, event.getCause());
-				}
-			}
+		Player player = (Player) defender;
+		PlayerData playerData = playerManager.getData(player.getUniqueId());
+		if (playerData == null) return;
+		if (playerManager.isSpectator(playerData)) {
+			event.setCancelled(true);
+			player.setFireTicks(0);
+			return;
 		}
 
-		// Stop players from removing items from item frames
-		if (defender instanceof Hanging) {
-            handleItemFrame((Hanging) event.getEntity(), event, !Config.itemframe_take);
-        }
+		Game game = playerData.getGame();
+		if (damager != null && game.getGameArenaData().getStatus() != Status.RUNNING) {
+			event.setCancelled(true);
+		} else if (event.getFinalDamage() >= player.getHealth()) {
+			if (hasTotem(player)) return;
+			event.setCancelled(true);
+			processDeath(player, game, damager, event.getCause());
+		}
 	}
 
 	@EventHandler // Prevent players breaking item frames
@@ -148,8 +149,8 @@ public class GameListener implements Listener {
     }
 
 	private void handleItemFrame(Hanging itemFrame, Event event, boolean cancel) {
-	    if (gameManager.isInRegion(itemFrame.getLocation())) {
-	        Game game = gameManager.getGame(itemFrame.getLocation());
+	    Game game = gameManager.getGame(itemFrame.getLocation());
+	    if (game != null) {
 	        switch (game.getGameArenaData().getStatus()) {
                 case RUNNING:
                 case BEGINNING:
@@ -163,27 +164,6 @@ public class GameListener implements Listener {
         }
     }
 
-	@EventHandler(priority =  EventPriority.HIGHEST)
-	private void onDeathByOther(EntityDamageEvent event) {
-		if (event.getEntity() instanceof Player) {
-			final Player player = ((Player) event.getEntity());
-			if (playerManager.hasSpectatorData(player)) {
-				event.setCancelled(true);
-				player.setFireTicks(0);
-				return;
-			}
-			if (event instanceof EntityDamageByEntityEvent) return;
-			PlayerData pd = playerManager.getPlayerData(player);
-			if (pd != null) {
-				if (event.getFinalDamage() >= player.getHealth()) {
-					if (hasTotem(player)) return;
-					event.setCancelled(true);
-					processDeath(player, pd.getGame(), null, event.getCause());
-				}
-			}
-		}
-	}
-
 	@SuppressWarnings("ConstantConditions")
     private boolean hasTotem(Player player) {
 		PlayerInventory inv = player.getInventory();
@@ -219,9 +199,8 @@ public class GameListener implements Listener {
 			leaderboard.addStat(player, Leaderboard.Stats.DEATHS);
 			leaderboard.addStat(player, Leaderboard.Stats.GAMES);
 
-			for (UUID uuid : game.getGamePlayerData().getPlayers()) {
-				Player alive = Bukkit.getPlayer(uuid);
-				if (alive != null && player != alive) {
+			for (Player alive : game.getGamePlayerData().getPlayerHandles()) {
+				if (player != alive) {
 					alive.playSound(alive.getLocation(), Sound.UI_TOAST_CHALLENGE_COMPLETE, 5, 1);
 				}
 			}
@@ -244,18 +223,19 @@ public class GameListener implements Listener {
 	@EventHandler
 	private void onSprint(FoodLevelChangeEvent event) {
 		Player player = (Player) event.getEntity();
-		if (playerManager.hasPlayerData(player)) {
-			Status status = Objects.requireNonNull(playerManager.getPlayerData(player)).getGame().getGameArenaData().getStatus();
-			if (status == Status.WAITING || status == Status.COUNTDOWN) {
-				player.setFoodLevel(1);
-				event.setCancelled(true);
-			}
-		}
+		PlayerData playerData = playerManager.getData(player.getUniqueId());
+		if (playerData == null) return;
 		// Prevent spectators from losing food level
-		if (playerManager.hasSpectatorData(player)) {
+		if (playerManager.isSpectator(playerData)) {
             player.setFoodLevel(20);
 		    event.setCancelled(true);
+		    return;
         }
+		Status status = playerData.getGame().getGameArenaData().getStatus();
+		if (status == Status.WAITING || status == Status.COUNTDOWN) {
+			player.setFoodLevel(1);
+			event.setCancelled(true);
+		}
 	}
 
 	private void useTrackStick(Player p) {
@@ -350,31 +330,21 @@ public class GameListener implements Listener {
 		}
 	}
 
-	@EventHandler
-	private void onChestUse(PlayerInteractEvent event) {
-		//noinspection deprecation
-		if (event.isCancelled()) return;
-		Player player = event.getPlayer();
-		if (event.getAction() == Action.RIGHT_CLICK_BLOCK && playerManager.hasPlayerData(player)) {
-			Block block = event.getClickedBlock();
-			assert block != null;
-			PlayerData pd = playerManager.getPlayerData(player);
-			if (gameManager.getGame(player.getLocation()).getGameArenaData().getStatus()  == Status.COUNTDOWN  || gameManager.getGame(player.getLocation()).getGameArenaData().getStatus()  == Status.WAITING) event.setCancelled(true);
-			if (block.getType() == Material.CHEST) {
-				assert pd != null;
-				Bukkit.getServer().getPluginManager().callEvent(new ChestOpenEvent(pd.getGame(), block, false));
-			} else if (BlockUtils.isBonusBlock(block)) {
-				assert pd != null;
-				Bukkit.getServer().getPluginManager().callEvent(new ChestOpenEvent(pd.getGame(), block, true));
-			}
+	private void handleChestUse(PlayerInteractEvent event, Game game) {
+		Block block = event.getClickedBlock();
+		assert block != null;
+		Status status = game.getGameArenaData().getStatus();
+		if (status == Status.COUNTDOWN || status == Status.WAITING) event.setCancelled(true);
+		if (block.getType() == Material.CHEST) {
+			Bukkit.getServer().getPluginManager().callEvent(new ChestOpenEvent(game, block, false));
+		} else if (BlockUtils.isBonusBlock(block)) {
+			Bukkit.getServer().getPluginManager().callEvent(new ChestOpenEvent(game, block, true));
 		}
 	}
 
     private boolean isSpectatorCompass(PlayerInteractEvent event) {
         Action action = event.getAction();
-        Player player = event.getPlayer();
         if (action != Action.RIGHT_CLICK_AIR && action != Action.RIGHT_CLICK_BLOCK) return false;
-        if (!playerManager.hasSpectatorData(player)) return false;
 
         ItemStack item = event.getItem();
         if (item == null || item.getType() != Material.COMPASS) return false;
@@ -382,70 +352,86 @@ public class GameListener implements Listener {
 
     }
 
-    private void handleSpectatorCompass(Player player) {
-        GamePlayerData gamePlayerData = Objects.requireNonNull(playerManager.getSpectatorData(player)).getGame().getGamePlayerData();
-        gamePlayerData.getSpectatorGUI().openInventory(player);
-    }
-
+	// Single handler for all interactions, players not in a game are dealt with after one lookup
 	@EventHandler
 	private void onInteract(PlayerInteractEvent event) {
 		Player player = event.getPlayer();
 		Action action = event.getAction();
-        if (playerManager.hasSpectatorData(player)) {
+		PlayerData playerData = playerManager.getData(player.getUniqueId());
+		if (playerData != null && playerManager.isSpectator(playerData)) {
             event.setCancelled(true);
             if (isSpectatorCompass(event)) {
-                handleSpectatorCompass(player);
+                playerData.getGame().getGamePlayerData().getSpectatorGUI().openInventory(player);
             }
-        } else if (action != Action.PHYSICAL && playerManager.hasPlayerData(player)) {  //Player is in game
-            Status status = Objects.requireNonNull(playerManager.getPlayerData(player)).getGame().getGameArenaData().getStatus();
+        } else if (action == Action.PHYSICAL) {
+			handleTrample(event, player);
+		} else if (playerData == null) {
+			if (action == Action.RIGHT_CLICK_BLOCK) {
+				handleLobbySign(event, player);
+			}
+		} else {  //Player is in game
+			Game game = playerData.getGame();
+            Status status = game.getGameArenaData().getStatus();
             if (status != Status.RUNNING && status != Status.BEGINNING) {
 				if (event.getItem() != null)
-					if(event.getItem().getType().equals(Material.getMaterial(Config.leaveitemtype))){
-						playerManager.getPlayerData(player).getGame().getGamePlayerData().leave(player, false);
-					} else if (event.getItem().getType().equals(Material.getMaterial(Config.forcestartitem))){
+					if (event.getItem().getType() == Config.leaveItem) {
+						game.getGamePlayerData().leave(player, false);
+						return;
+					} else if (event.getItem().getType() == Config.forceStartItem) {
 						Util.clearInv(player);
-						//playerManager.getPlayerData(player).getGame()
-						playerManager.getPlayerData(player).getGame().startFreeRoam();
+						game.startFreeRoam();
 					} else {
 						event.setCancelled(true);
 						Util.scm(player, lang.listener_no_interact);
 					}
             }
-        } else if (action == Action.RIGHT_CLICK_BLOCK) {
-			Block block = event.getClickedBlock();
-			assert block != null;
-			if (Util.isWallSign(block.getType())) {
-				Sign sign = (Sign) block.getState();
-				if (sign.getLine(0).equals(Util.getColString(lang.lobby_sign_1_1))) {
-					Game game = gameManager.getGame(sign.getLine(1).substring(2));
-					if (game == null) {
-						Util.scm(player, lang.cmd_delete_noexist);
+			//noinspection deprecation
+			if (action == Action.RIGHT_CLICK_BLOCK && !event.isCancelled()) {
+				handleChestUse(event, game);
+			} else if (action == Action.LEFT_CLICK_AIR && player.getInventory().getItemInMainHand().getType() == Material.STICK) {
+				useTrackStick(player);
+			}
+		}
+	}
+
+	private void handleTrample(PlayerInteractEvent event, Player player) {
+		if (!Config.preventtrample) return;
+		Block block = event.getClickedBlock();
+		if (block != null && block.getType() == Material.FARMLAND && gameManager.isInRegion(player.getLocation())) {
+			event.setCancelled(true);
+		}
+	}
+
+	private void handleLobbySign(PlayerInteractEvent event, Player player) {
+		Block block = event.getClickedBlock();
+		assert block != null;
+		if (Util.isWallSign(block.getType())) {
+			Sign sign = (Sign) block.getState();
+			if (sign.getLine(0).equals(Util.getColString(lang.lobby_sign_1_1))) {
+				Game game = gameManager.getGame(sign.getLine(1).substring(2));
+				if (game == null) {
+					Util.scm(player, lang.cmd_delete_noexist);
+				} else {
+					if (player.getInventory().getItemInMainHand().getType() == Material.AIR) {
+					    // Process this after event has finished running to prevent double click issues
+						if (HG.getParty().hasParty(player)) {
+							//player is in party
+							if (HG.getParty().isOwner(player)  && ((game.getGamePlayerData().getPlayers().size() + HG.getParty().partySize(player)) <= game.getGameArenaData().getMaxPlayers())){  //player is owner join party
+								Bukkit.getScheduler().scheduleSyncDelayedTask(plugin, () -> {
+									for (Player p : HG.getParty().getMembers(player)) {
+										game.getGamePlayerData().join(p);
+									}
+								});
+							}else if (!HG.getParty().isOwner(player)) {
+								player.sendMessage("You are in a party but not the leader, unable to join game");
+							}
+						}else
+							Bukkit.getScheduler().scheduleSyncDelayedTask(plugin, () -> game.getGamePlayerData().join(player), 2);
 					} else {
-						if (player.getInventory().getItemInMainHand().getType() == Material.AIR) {
-						    // Process this after event has finished running to prevent double click issues
-							if (HG.getParty().hasParty(player)) {
-								//player is in party
-								if (HG.getParty().isOwner(player)  && ((game.getGamePlayerData().getPlayers().size() + HG.getParty().partySize(player)) <= game.getGameArenaData().getMaxPlayers())){  //player is owner join party
-									Bukkit.getScheduler().scheduleSyncDelayedTask(plugin, () -> {
-										for (Player p : HG.getParty().getMembers(player)) {
-											game.getGamePlayerData().join(p);
-										}
-									});
-								}else if (!HG.getParty().isOwner(player)) {
-									player.sendMessage("You are in a party but not the leader, unable to join game");
-								}
-							}else
-								Bukkit.getScheduler().scheduleSyncDelayedTask(plugin, () -> game.getGamePlayerData().join(player), 2);
-						} else {
-							Util.scm(player, lang.listener_sign_click_hand);
-						}
+						Util.scm(player, lang.listener_sign_click_hand);
 					}
 				}
 			}
-		} else if (action == Action.LEFT_CLICK_AIR) {
-			if (player.getInventory().getItemInMainHand().getType().equals(Material.STICK) && playerManager.hasPlayerData(player)) {
-				useTrackStick(player);
-			}
 		}
 	}
 
@@ -453,18 +439,20 @@ public class GameListener implements Listener {
 	private void onInventoryClick(InventoryClickEvent e) {
 		if (!(e.getWhoClicked() instanceof Player)) return;
 		Player player = (Player) e.getWhoClicked();
-		if (playerManager.getPlayerData(player) == null) return;
+		PlayerData playerData = playerManager.getPlayerData(player);
+		if (playerData == null) return;
 		if (e.getClickedInventory() == null) return;
-		if (e.getClickedInventory().getItem(e.getSlot()) == null)
+		ItemStack item = e.getClickedInventory().getItem(e.getSlot());
+		if (item == null)
 			return;
 
-		Game game = Objects.requireNonNull(playerManager.getPlayerData(player)).getGame();
+		Game game = playerData.getGame();
 		Status status = game.getGameArenaData().getStatus();
 		if (status != Status.RUNNING && status != Status.BEGINNING) {
-			if (Objects.equals(Objects.requireNonNull(e.getClickedInventory().getItem(e.getSlot())).getType(), Material.getMaterial(Config.leaveitemtype))) {
+			if (item.getType() == Config.leaveItem) {
 				Util.clearInv(player);
 				game.getGamePlayerData().leave(player,false);
-			} else if (Objects.equals(Objects.requireNonNull(e.getClickedInventory().getItem(e.getSlot())).getType(), Material.getMaterial(Config.forcestartitem))) {
+			} else if (item.getType() == Config.forceStartItem) {
 				Util.clearInv(player);
 				game.startFreeRoam();
 			}
@@ -475,14 +463,17 @@ public class GameListener implements Listener {
 	private void blockPlace(BlockPlaceEvent event) {
 		Player player = event.getPlayer();
 		Block block = event.getBlock();
+		PlayerData playerData = playerManager.getData(player.getUniqueId());
 
-		if (playerManager.hasSpectatorData(player)) {
+		if (playerData != null && playerManager.isSpectator(playerData)) {
 			event.setCancelled(true);
+			playerData = null;
 		}
-		if (gameManager.isInRegion(block.getLocation())) {
+		Game arena = gameManager.getGame(block);
+		if (arena != null) {
 
-			if (Config.breakblocks && playerManager.hasPlayerData(player)) {
-                Game game = Objects.requireNonNull(playerManager.getPlayerData(player)).getGame();
+			if (Config.breakblocks && playerData != null) {
+                Game game = playerData.getGame();
                 GameBlockData gameBlockData = game.getGameBlockData();
                 Status status = game.getGameArenaData().getStatus();
 				if (status == Status.RUNNING || status == Status.BEGINNING) {
@@ -501,12 +492,11 @@ public class GameListener implements Listener {
 				}
 			} else {
 				if (player.hasPermission("hg.create")) {
-				    Game game = plugin.getManager().getGame(block.getLocation());
-				    Status status = game.getGameArenaData().getStatus();
+				    Status status = arena.getGameArenaData().getStatus();
 				    switch (status) {
                         case BEGINNING:
                         case RUNNING:
-                            game.getGameBlockData().recordBlockPlace(event.getBlockReplacedState());
+                            arena.getGameBlockData().recordBlockPlace(event.getBlockReplacedState());
                         default:
                             return;
                     }
@@ -520,15 +510,21 @@ public class GameListener implements Listener {
 	private void blockBreak(BlockBreakEvent event) {
 		Player player = event.getPlayer();
 		Block block = event.getBlock();
+		PlayerData playerData = playerManager.getData(player.getUniqueId());
+		boolean spectator = playerData != null && playerManager.isSpectator(playerData);
 
-		if (playerManager.hasSpectatorData(player)) {
+		if (spectator) {
 			event.setCancelled(true);
 		}
-		if (gameManager.isInRegion(block.getLocation())) {
+		Game arena = gameManager.getGame(block);
+		if (arena != null) {
 
-			if (Config.breakblocks && playerManager.hasPlayerData(player)) {
-                Game game = Objects.requireNonNull(playerManager.getPlayerData(player)).getGame();
-				if (game.getGameArenaData().getStatus() == Status.RUNNING || !Config.protectCooldown) {
+			if (Config.breakblocks && playerData != null && !spectator) {
+                Game game = playerData.getGame();
+				if (game.getGameBlockData().isRestoring()) {
+					Util.scm(player, lang.listener_restoring);
+					event.setCancelled(true);
+				} else if (game.getGameArenaData().getStatus() == Status.RUNNING || !Config.protectCooldown) {
 					if (!BlockUtils.isBreakableBlock(block)) {
 						Util.scm(player, lang.listener_no_edit_block);
 						event.setCancelled(true);
@@ -545,13 +541,12 @@ public class GameListener implements Listener {
 					event.setCancelled(true);
 				}
 			} else {
-                if (!playerManager.hasPlayerData(player) && player.hasPermission("hg.create")) {
-                    Game game = gameManager.getGame(block.getLocation());
-                    Status status = game.getGameArenaData().getStatus();
+                if ((playerData == null || spectator) && player.hasPermission("hg.create")) {
+                    Status status = arena.getGameArenaData().getStatus();
                     switch (status) {
                         case BEGINNING:
                         case RUNNING:
-							game.getGameBlockData().removeGameChest(block.getLocation());
+							arena.getGameBlockData().removeGameChest(block.getLocation());
                         default:
                             return;
                     }
@@ -582,11 +577,15 @@ public class GameListener implements Listener {
 	    final boolean WATER = event.getBucket() == Material.WATER_BUCKET && (Config.blocks.contains("WATER") || Config.blocks.contains("ALL"));
 	    final boolean LAVA = event.getBucket() == Material.LAVA_BUCKET && (Config.blocks.contains("LAVA") || Config.blocks.contains("ALL"));
 
-        if (plugin.getManager().isInRegion(block.getLocation())) {
-            if (Config.breakblocks && playerManager.hasPlayerData(player)) {
-                Game game = Objects.requireNonNull(playerManager.getPlayerData(player)).getGame();
+        if (gameManager.getGame(block) != null) {
+            PlayerData playerData = playerManager.getPlayerData(player);
+            if (Config.breakblocks && playerData != null) {
+                Game game = playerData.getGame();
                 GameBlockData gameBlockData = game.getGameBlockData();
-                if (game.getGameArenaData().getStatus() == Status.RUNNING || !Config.protectCooldown) {
+                if (gameBlockData.isRestoring()) {
+                    Util.scm(player, plugin.getLang().listener_restoring);
+                    event.setCancelled(true);
+                } else if (game.getGameArenaData().getStatus() == Status.RUNNING || !Config.protectCooldown) {
                     if (fill && BlockUtils.isBreakableBlock(block)) {
                         gameBlockData.recordBlockBreak(block);
                     } else if (!fill && (WATER || LAVA)) {
@@ -600,7 +599,7 @@ public class GameListener implements Listener {
                     event.setCancelled(true);
                 }
             } else {
-                if (playerManager.hasPlayerData(player) || !player.hasPermission("hg.create")) {
+                if (playerData != null || !player.hasPermission("hg.create")) {
                     event.setCancelled(true);
                 }
             }
@@ -616,13 +615,15 @@ public class GameListener implements Listener {
 
 	@EventHandler
 	private void onBlockFall(BlockPhysicsEvent event) {
+		// Runs for every physics update on the server, keep this cheap
+		if (!Config.breakblocks) return;
 		Block block = event.getBlock();
-		if (Config.breakblocks && gameManager.isInRegion(block.getLocation())) {
-			Game game = gameManager.getGame(block.getLocation());
-			Status status = game.getGameArenaData().getStatus();
-			if (status == Status.RUNNING || status == Status.BEGINNING) {
-				game.getGameBlockData().recordBlockBreak(block);
-			}
+		if (!BlockUtils.isPhysicsSensitive(block.getType())) return;
+		Game game = gameManager.getGame(block);
+		if (game == null) return;
+		Status status = game.getGameArenaData().getStatus();
+		if (status == Status.RUNNING || status == Status.BEGINNING) {
+			game.getGameBlockData().recordPhysics(block);
 		}
 	}
 
@@ -630,8 +631,8 @@ public class GameListener implements Listener {
 	private void onFallingBlockLand(EntityChangeBlockEvent event) {
 		Block block = event.getBlock();
 		if (block.getType() == Material.AIR || block.getType() == Material.WATER || block.getType() == Material.LAVA) {
-			if (Config.breakblocks && gameManager.isInRegion(event.getEntity().getLocation())) {
-				Game game = gameManager.getGame(event.getEntity().getLocation());
+			Game game = Config.breakblocks ? gameManager.getGame(event.getEntity().getLocation()) : null;
+			if (game != null) {
 				Status status = game.getGameArenaData().getStatus();
 				if (status == Status.RUNNING || status == Status.BEGINNING) {
 					game.getGameBlockData().recordBlockPlace(block.getState());
@@ -642,71 +643,45 @@ public class GameListener implements Listener {
 
 	@EventHandler
 	private void onEntityExplode(EntityExplodeEvent event) {
-		if (gameManager.isInRegion(event.getLocation())) {
-			Game game = gameManager.getGame(event.getLocation());
-			for (Block block : event.blockList()) {
-				game.getGameBlockData().recordBlockBreak(block);
-			}
+		Game game = gameManager.getGame(event.getLocation());
+		if (game != null) {
+			game.getGameBlockData().recordBlocks(event.blockList());
 			event.setYield(0);
 		}
 	}
 
 	@EventHandler
 	private void onBlockExplode(BlockExplodeEvent event) {
-		if (gameManager.isInRegion(event.getBlock().getLocation())) {
-			GameBlockData gameBlockData = gameManager.getGame(event.getBlock().getLocation()).getGameBlockData();
-			for (Block block : event.blockList()) {
-				gameBlockData.recordBlockBreak(block);
-			}
+		Game game = gameManager.getGame(event.getBlock());
+		if (game != null) {
+			game.getGameBlockData().recordBlocks(event.blockList());
 			event.setYield(0);
 		}
 	}
 
 	@EventHandler
 	private void onLeafDecay(LeavesDecayEvent event) {
-		if (!Config.fixleaves) return;
+		if (!Config.fixleaves || !Config.breakblocks) return;
 		Block block = event.getBlock();
-		if (gameManager.isInRegion(block.getLocation())) {
-			if (Config.breakblocks) {
-				Game game = gameManager.getGame(block.getLocation());
-				if (game.getGameArenaData().getStatus() == Status.RUNNING) {
-					game.getGameBlockData().recordBlockBreak(block);
-				}
-			}
-		}
-	}
-
-	@EventHandler
-	private void onTrample(PlayerInteractEvent event) {
-		if (!Config.preventtrample) return;
-		Player player = event.getPlayer();
-		if (playerManager.hasSpectatorData(player)) {
-			event.setCancelled(true);
-		}
-		if (gameManager.isInRegion(player.getLocation())) {
-			if (event.getAction() == Action.PHYSICAL) {
-				assert event.getClickedBlock() != null;
-				Material block = event.getClickedBlock().getType();
-				if (block == Material.FARMLAND) {
-					event.setCancelled(true);
-				}
-			}
+		Game game = gameManager.getGame(block);
+		if (game != null && game.getGameArenaData().getStatus() == Status.RUNNING) {
+			game.getGameBlockData().recordBlockBreak(block);
 		}
 	}
 
 	@EventHandler
 	private void onDrop(PlayerDropItemEvent event) {
 		Player player = event.getPlayer();
-		PlayerData playerData = playerManager.getPlayerData(player);
-		if (playerData != null) {
-			Status status = playerData.getGame().getGameArenaData().getStatus();
-		    if (status != Status.BEGINNING && status != Status.RUNNING) {
-                event.setCancelled(true);
-            }
-		}
+		PlayerData playerData = playerManager.getData(player.getUniqueId());
+		if (playerData == null) return;
 		// Prevent spectators from dropping items
-		if (playerManager.hasSpectatorData(player)) {
+		if (playerManager.isSpectator(playerData)) {
 		    event.setCancelled(true);
+		    return;
+        }
+		Status status = playerData.getGame().getGameArenaData().getStatus();
+	    if (status != Status.BEGINNING && status != Status.RUNNING) {
+            event.setCancelled(true);
         }
 	}
 
@@ -715,8 +690,8 @@ public class GameListener implements Listener {
         Entity entity = event.getEntity();
         if (entity instanceof ItemFrame || entity instanceof ArmorStand) return;
         if (!(entity instanceof Player)) {
-            if (gameManager.isInRegion(event.getLocation())) {
-                Game game = gameManager.getGame(event.getLocation());
+            Game game = gameManager.getGame(event.getLocation());
+            if (game != null) {
                 if (entity instanceof LivingEntity) {
                     if (game.getGameArenaData().getStatus() != Status.RUNNING) {
                         event.setCancelled(true);
@@ -747,6 +722,14 @@ public class GameListener implements Listener {
 		}
 	}
 
+	@EventHandler
+	private void onLogin(PlayerJoinEvent event) {
+		Player player = event.getPlayer();
+		// Give back anything they had before a game which never finished
+		plugin.getPlayerSnapshots().restore(player);
+		leaderboard.updateName(player);
+	}
+
 	@EventHandler
 	private void onLogout(PlayerQuitEvent event) {
 		Player player = event.getPlayer();
@@ -762,6 +745,10 @@ public class GameListener implements Listener {
 			playerData.setOnline(false);
 			playerData.getGame().getGamePlayerData().leaveSpectate(player);
 		}
+		// Players who died may still be waiting on the win message
+		for (Game game : plugin.getGames()) {
+			game.getGamePlayerData().removeHandle(player.getUniqueId());
+		}
 	}
 
 	@EventHandler
@@ -779,11 +766,14 @@ public class GameListener implements Listener {
 	@EventHandler
 	private void onChat(AsyncPlayerChatEvent event) {
 		if (!Config.spectateChat) {
-			Player spectator = event.getPlayer();
-			if (playerManager.hasSpectatorData(spectator)) {
-				for (UUID uuid : Objects.requireNonNull(playerManager.getSpectatorData(spectator)).getGame().getGamePlayerData().getPlayers()) {
-					event.getRecipients().remove(Bukkit.getPlayer(uuid));
-				}
+			// Called async, only the player manager is safe to read from here, not the game's player lists
+			PlayerData spectatorData = playerManager.getSpectatorData(event.getPlayer());
+			if (spectatorData != null) {
+				Game game = spectatorData.getGame();
+				event.getRecipients().removeIf(recipient -> {
+					PlayerData recipientData = playerManager.getPlayerData(recipient);
+					return recipientData != null && recipientData.getGame() == game;
+				});
 			}
 		}
 	}
@@ -792,12 +782,11 @@ public class GameListener implements Listener {
 	private void onTeleportIntoArena(PlayerTeleportEvent event) {
 		Player player = event.getPlayer();
 		Location location = event.getTo();
-		for (Game game : plugin.getGames()) {
-			GameArenaData gameArenaData = game.getGameArenaData();
-			if (gameArenaData.isInRegion(location) && gameArenaData.getStatus() == Status.RUNNING) {
-				if (event.getCause() == PlayerTeleportEvent.TeleportCause.ENDER_PEARL && !game.getGamePlayerData().getPlayers().contains(player.getUniqueId()) && !game.getGamePlayerData().getSpectators().contains(player.getUniqueId())) {
-					event.setCancelled(true);
-				}
+		if (location == null) return;
+		Game game = gameManager.getGame(location);
+		if (game != null && game.getGameArenaData().getStatus() == Status.RUNNING) {
+			if (event.getCause() == PlayerTeleportEvent.TeleportCause.ENDER_PEARL && !game.getGamePlayerData().getPlayers().contains(player.getUniqueId()) && !game.getGamePlayerData().getSpectators().contains(player.getUniqueId())) {
+				event.setCancelled(true);
 			}
 		}
 	}
@@ -12,7 +12,6 @@ import org.bukkit.inventory.EquipmentSlot;
 import tk.shanebee.hg.HG;
 import tk.shanebee.hg.data.Language;
 import tk.shanebee.hg.data.PlayerSession;
-import tk.shanebee.hg.game.Game;
 import tk.shanebee.hg.util.Util;
 
 /**
@@ -43,11 +42,9 @@ public class WandListener implements Listener {
             if (event.getHand() == EquipmentSlot.OFF_HAND) return;
             event.setCancelled(true);
 
-            for (Game game : plugin.getGames()) {
-                if (game.getGameArenaData().getBound().isInRegion(location)) {
-                    Util.sendPrefixedMessage(player, "&cThis location is already within an arena");
-                    return;
-                }
+            if (plugin.getManager().isInRegion(location)) {
+                Util.sendPrefixedMessage(player, "&cThis location is already within an arena");
+                return;
             }
 
             String pos;
@@ -0,0 +1,32 @@
+package tk.shanebee.hg.listeners;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import tk.shanebee.hg.HG;
+
+/**
+ * Internal world listener
+ * <p>Keeps the arena index in step with the worlds which are loaded</p>
+ */
+public class WorldListener implements Listener {
+
+	private final HG plugin;
+
+	public WorldListener(HG plugin) {
+		this.plugin = plugin;
+	}
+
+	@EventHandler
+	private void onWorldLoad(WorldLoadEvent event) {
+		plugin.getManager().indexArenas();
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	private void onWorldUnload(WorldUnloadEvent event) {
+		plugin.getManager().unindexArenas(event.getWorld());
+	}
+
+}
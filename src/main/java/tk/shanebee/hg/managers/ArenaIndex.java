@@ -0,0 +1,124 @@
+package tk.shanebee.hg.managers;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import tk.shanebee.hg.game.Bound;
+import tk.shanebee.hg.game.Game;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Spatial index of arenas by world and chunk
+ * <p>Lookups return the few games whose bounds overlap a chunk, without scanning every game
+ * or creating any objects, as they happen on every block event.
+ * The index has to be rebuilt whenever arenas are added or removed, or their worlds are loaded or unloaded.</p>
+ */
+class ArenaIndex {
+
+    private static final Game[] NONE = new Game[0];
+
+    private final Map<UUID, ChunkTable> worlds = new HashMap<>();
+
+    /**
+     * Rebuild this index from a list of games
+     *
+     * @param games Games to index, games without a bound or whose world isn't loaded are left out
+     */
+    void rebuild(List<Game> games) {
+        worlds.clear();
+        Map<UUID, Map<Long, List<Game>>> chunks = new HashMap<>();
+        for (Game game : games) {
+            Bound bound = game.getGameArenaData().getBound();
+            if (bound == null) continue;
+            World world = bound.getWorld();
+            if (world == null) continue;
+
+            Location lesser = bound.getLesserCorner();
+            Location greater = bound.getGreaterCorner();
+            Map<Long, List<Game>> worldChunks = chunks.computeIfAbsent(world.getUID(), k -> new LinkedHashMap<>());
+            for (int cx = lesser.getBlockX() >> 4; cx <= greater.getBlockX() >> 4; cx++) {
+                for (int cz = lesser.getBlockZ() >> 4; cz <= greater.getBlockZ() >> 4; cz++) {
+                    worldChunks.computeIfAbsent(key(cx, cz), k -> new ArrayList<>(1)).add(game);
+                }
+            }
+        }
+        chunks.forEach((uid, worldChunks) -> {
+            ChunkTable table = new ChunkTable(worldChunks.size());
+            worldChunks.forEach((key, list) -> table.put(key, list.toArray(NONE)));
+            worlds.put(uid, table);
+        });
+    }
+
+    /**
+     * Remove all arenas in a world from this index
+     *
+     * @param world World to remove
+     */
+    void remove(World world) {
+        worlds.remove(world.getUID());
+    }
+
+    /**
+     * Get the games whose bounds overlap the chunk of a block position
+     *
+     * @param world World of the position
+     * @param x     Block x of the position
+     * @param z     Block z of the position
+     * @return Games which may contain this position, bounds still have to be checked
+     */
+    Game[] getGames(World world, int x, int z) {
+        ChunkTable table = worlds.get(world.getUID());
+        if (table == null) return NONE;
+        return table.get(key(x >> 4, z >> 4));
+    }
+
+    private static long key(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+
+    // Open addressing table of chunk key to games, avoids boxing keys on lookup
+    private static class ChunkTable {
+
+        private final long[] keys;
+        private final Game[][] values;
+        private final int mask;
+
+        private ChunkTable(int size) {
+            int capacity = Integer.highestOneBit(Math.max(size, 1) * 2 - 1) << 1;
+            this.keys = new long[capacity];
+            this.values = new Game[capacity][];
+            this.mask = capacity - 1;
+        }
+
+        private void put(long key, Game[] games) {
+            int i = slot(key);
+            while (values[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = games;
+        }
+
+        private Game[] get(long key) {
+            int i = slot(key);
+            Game[] games;
+            while ((games = values[i]) != null) {
+                if (keys[i] == key) return games;
+                i = (i + 1) & mask;
+            }
+            return NONE;
+        }
+
+        private int slot(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash >>> 32) & mask;
+        }
+
+    }
+
+}
@@ -2,6 +2,7 @@ package tk.shanebee.hg.managers;
 
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.Sign;
 import org.bukkit.command.CommandSender;
@@ -30,10 +31,27 @@ public class Manager {
 	private final HG plugin;
 	private final Language lang;
 	private final Random rg = new Random();
+	private final ArenaIndex arenaIndex = new ArenaIndex();
 	
 	public Manager(HG plugin) {
 		this.plugin = plugin;
 		this.lang = plugin.getLang();
+		indexArenas();
+	}
+
+	/** Rebuild the index used to find games by location
+	 * <p>Needs to be called whenever a game is added or removed</p>
+	 */
+	public void indexArenas() {
+		arenaIndex.rebuild(plugin.getGames());
+	}
+
+	/** Remove the arenas of a world from the index used to find games by location
+	 * <p>Needs to be called when a world unloads, as it is still loaded while the event is called</p>
+	 * @param world World which is unloading
+	 */
+	public void unindexArenas(World world) {
+		arenaIndex.remove(world);
 	}
 
     /** Run arena debugger
@@ -215,11 +233,7 @@ public class Manager {
 	 * @return True if the location is within a game's bounds
 	 */
 	public boolean isInRegion(Location location) {
-		for (Game g : plugin.getGames()) {
-			if (g.getGameArenaData().isInRegion(location))
-				return true;
-		}
-		return false;
+		return getGame(location) != null;
 	}
 
 	/** Get a game at a location
@@ -227,13 +241,28 @@ public class Manager {
 	 * @return The game
 	 */
 	public Game getGame(Location location) {
-		for (Game g : plugin.getGames()) {
+		World world = location.getWorld();
+		if (world == null) return null;
+		for (Game g : arenaIndex.getGames(world, location.getBlockX(), location.getBlockZ())) {
 			if (g.getGameArenaData().isInRegion(location))
 				return g;
 		}
 		return null;
 	}
 
+	/** Get a game at a block
+	 * <p>Unlike {@link #getGame(Location)} this does not create any objects, for use in frequent events</p>
+	 * @param block The block to check for a game
+	 * @return The game, null if this block isn't in a game's bounds
+	 */
+	public Game getGame(Block block) {
+		for (Game game : arenaIndex.getGames(block.getWorld(), block.getX(), block.getZ())) {
+			if (game.getGameArenaData().getBound().isInRegion(block))
+				return game;
+		}
+		return null;
+	}
+
 	/** Get a game by name
 	 * @param name The name of the game to find
 	 * @return The game
@@ -258,6 +287,7 @@ public class Manager {
                 case COUNTDOWN:
                 case BEGINNING:
                 case ROLLBACK:
+                case RESTORING:
                     i++;
             }
         }
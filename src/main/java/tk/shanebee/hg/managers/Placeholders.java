@@ -1,25 +1,49 @@
 package tk.shanebee.hg.managers;
 
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 import tk.shanebee.hg.HG;
 import tk.shanebee.hg.data.Language;
 import tk.shanebee.hg.data.Leaderboard;
+import tk.shanebee.hg.data.RankIndex;
+import tk.shanebee.hg.game.Game;
+import tk.shanebee.hg.game.GameArenaData;
+import tk.shanebee.hg.game.GamePlayerData;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Internal placeholder class
+ * <p>Each valid identifier is compiled once into a {@link Resolver}, which is cached.
+ * Game values are read from a snapshot taken every tick, so placeholders may be requested from any thread.</p>
  */
 public class Placeholders extends PlaceholderExpansion {
 
+    private static final Resolver INVALID = player -> null;
+    // Max amount of identifiers to cache
+    private static final int MAX_RESOLVERS = 1024;
+
     private final HG plugin;
     private final Leaderboard leaderboard;
     private final Language lang;
+    private final Map<String, Resolver> resolvers = new ConcurrentHashMap<>();
+    private final BukkitTask snapshotTask;
+    private volatile Snapshot snapshot = new Snapshot(Collections.emptyMap(), Collections.emptyMap());
 
     public Placeholders(HG plugin) {
         this.plugin = plugin;
         this.leaderboard = plugin.getLeaderboard();
         this.lang = plugin.getLang();
+        this.snapshotTask = Bukkit.getScheduler().runTaskTimer(plugin, this::takeSnapshot, 0, 1);
     }
 
     @Override
@@ -47,91 +71,250 @@ public class Placeholders extends PlaceholderExpansion {
         return plugin.getDescription().getVersion();
     }
 
+    /**
+     * Stop taking snapshots and unregister these placeholders
+     * <p>Called when the plugin unloads</p>
+     */
+    public void stop() {
+        snapshotTask.cancel();
+        unregister();
+    }
+
     @Override
     public String onRequest(OfflinePlayer player, String identifier) {
-        if (identifier.startsWith("lb_player_")) {
-            int leader = Integer.parseInt(identifier.replace("lb_player_", ""));
-            if (leaderboard.getStatsPlayers(Leaderboard.Stats.WINS).size() >= leader)
-                return leaderboard.getStatsPlayers(Leaderboard.Stats.WINS).get(leader - 1);
-            else
-                return lang.lb_blank_space;
+        Resolver resolver = resolvers.get(identifier);
+        if (resolver == null) {
+            resolver = compile(identifier);
+            // Invalid identifiers aren't cached, and the cache can't be grown without bound by made up identifiers
+            if (resolver != INVALID && resolvers.size() < MAX_RESOLVERS) {
+                resolvers.put(identifier, resolver);
+            }
         }
-        if (identifier.startsWith("lb_score_")) {
-            int leader = (Integer.parseInt(identifier.replace("lb_score_", "")));
-            if (leaderboard.getStatsScores(Leaderboard.Stats.WINS).size() >= leader)
-                return leaderboard.getStatsScores(Leaderboard.Stats.WINS).get(leader - 1);
-            else
-                return lang.lb_blank_space;
+        return resolver.resolve(player);
+    }
 
+    private Resolver compile(String identifier) {
+        try {
+            if (identifier.startsWith("lb_player_")) {
+                int leader = Integer.parseInt(identifier.substring("lb_player_".length()));
+                return player -> {
+                    RankIndex.Entry entry = leaderboard.getEntry(Leaderboard.Stats.WINS, leader);
+                    return entry != null ? leaderboard.getName(entry.getUuid()) : lang.lb_blank_space;
+                };
+            }
+            if (identifier.startsWith("lb_score_")) {
+                int leader = Integer.parseInt(identifier.substring("lb_score_".length()));
+                return player -> {
+                    RankIndex.Entry entry = leaderboard.getEntry(Leaderboard.Stats.WINS, leader);
+                    return entry != null ? String.valueOf(entry.getScore()) : lang.lb_blank_space;
+                };
+            }
+            if (identifier.startsWith("lb_combined_")) {
+                int leader = Integer.parseInt(identifier.substring("lb_combined_".length()));
+                return player -> {
+                    RankIndex.Entry entry = leaderboard.getEntry(Leaderboard.Stats.WINS, leader);
+                    if (entry != null)
+                        return leaderboard.getName(entry.getUuid()) + lang.lb_combined_separator + entry.getScore();
+                    else
+                        return lang.lb_blank_space + lang.lb_combined_separator + lang.lb_blank_space;
+                };
+            }
+            if (identifier.equalsIgnoreCase("lb_player")) {
+                return player -> player == null ? null :
+                        String.valueOf(leaderboard.getStat(player.getUniqueId(), Leaderboard.Stats.WINS));
+            }
+
+            String[] id = identifier.split("_");
+            switch (id[0]) {
+                case "lb":
+                    return compileStat(id);
+                case "player":
+                    return compilePlayer(id[1]);
+                case "status":
+                case "cost":
+                case "playerscurrent":
+                case "playersmax":
+                case "playersmin":
+                    return compileGame(id[0], identifier.substring(id[0].length() + 1));
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException ignore) {
+            // Invalid numbers, stats or missing parts
         }
-        if (identifier.startsWith("lb_combined_")) {
-            int leader = (Integer.parseInt(identifier.replace("lb_combined_", "")));
-            if (leaderboard.getStatsPlayers(Leaderboard.Stats.WINS).size() >= leader)
-                return leaderboard.getStatsPlayers(Leaderboard.Stats.WINS).get(leader - 1) + lang.lb_combined_separator +
-                        leaderboard.getStatsScores(Leaderboard.Stats.WINS).get(leader - 1);
-            else
-                return lang.lb_blank_space + lang.lb_combined_separator + lang.lb_blank_space;
+        return INVALID;
+    }
+
+    // Format: lb_<stat>[_<window>]_<p/s/c/player/rank>[_<position>]
+    private Resolver compileStat(String[] id) {
+        Leaderboard.Stats stat = Leaderboard.Stats.valueOf(id[1].toUpperCase(Locale.ROOT));
+        Leaderboard.Window window = Leaderboard.Window.getByName(id[2]);
+        int type = window != null ? 3 : 2;
+        switch (id[type].toLowerCase(Locale.ROOT)) {
+            case "player":
+                return player -> {
+                    if (player == null) return null;
+                    UUID uuid = player.getUniqueId();
+                    return String.valueOf(window != null ? leaderboard.getStat(uuid, stat, window) : leaderboard.getStat(uuid, stat));
+                };
+            case "rank":
+                return player -> {
+                    if (player == null) return null;
+                    UUID uuid = player.getUniqueId();
+                    int rank = window != null ? leaderboard.getRank(uuid, stat, window) : leaderboard.getRank(uuid, stat);
+                    return rank > 0 ? String.valueOf(rank) : lang.lb_blank_space;
+                };
         }
-        if (identifier.equalsIgnoreCase("lb_player")) {
-            return String.valueOf(leaderboard.getStat(player.getUniqueId(), Leaderboard.Stats.WINS));
+        int leader = Integer.parseInt(id[type + 1]);
+        switch (id[type].toLowerCase(Locale.ROOT)) {
+            case "p":
+                return player -> {
+                    RankIndex.Entry entry = getEntry(stat, window, leader);
+                    return entry != null ? leaderboard.getName(entry.getUuid()) : lang.lb_blank_space;
+                };
+            case "s":
+                return player -> {
+                    RankIndex.Entry entry = getEntry(stat, window, leader);
+                    return entry != null ? String.valueOf(entry.getScore()) : lang.lb_blank_space;
+                };
+            case "c":
+                return player -> {
+                    RankIndex.Entry entry = getEntry(stat, window, leader);
+                    if (entry != null)
+                        return leaderboard.getName(entry.getUuid()) + " : " + entry.getScore();
+                    else
+                        return lang.lb_blank_space + " : " + lang.lb_blank_space;
+                };
         }
-        String[] id = identifier.split("_");
-        switch (id[0]) {
-            case "lb":
-                switch (id[1]) {
-                    case "wins":
-                    case "kills":
-                    case "deaths":
-                    case "games":
-                        if (id[2].equalsIgnoreCase("p"))
-                            return getStatPlayers(identifier);
-                        else if (id[2].equalsIgnoreCase("s"))
-                            return getStatScores(identifier);
-                        else if (id[2].equalsIgnoreCase("c"))
-                            return getStatPlayers(identifier) + " : " + getStatScores(identifier);
-                        else if (id[2].equalsIgnoreCase("player"))
-                            return getStatsPlayer(identifier, player);
-                }
-            case "status":
-                return HG.getPlugin().getManager().getGame(id[1]).getGameArenaData().getStatus().getName();
-            case "cost":
-                return String.valueOf(HG.getPlugin().getManager().getGame(id[1]).getGameArenaData().getCost());
-            case "playerscurrent":
-                return String.valueOf(HG.getPlugin().getManager().getGame(id[1]).getGamePlayerData().getPlayers().size());
-            case "playersmax":
-                return String.valueOf(HG.getPlugin().getManager().getGame(id[1]).getGameArenaData().getMaxPlayers());
-            case "playersmin":
-                return String.valueOf(HG.getPlugin().getManager().getGame(id[1]).getGameArenaData().getMinPlayers());
+        return INVALID;
+    }
+
+    private RankIndex.Entry getEntry(Leaderboard.Stats stat, Leaderboard.Window window, int position) {
+        return window != null ? leaderboard.getEntry(stat, window, position) : leaderboard.getEntry(stat, position);
+    }
+
+    // Format: player_<arena/alive/kills/rank>
+    private Resolver compilePlayer(String value) {
+        switch (value.toLowerCase(Locale.ROOT)) {
+            case "arena":
+                return player -> {
+                    PlayerState state = getPlayerState(player);
+                    return state != null ? state.arena : lang.lb_blank_space;
+                };
+            case "alive":
+                return player -> {
+                    PlayerState state = getPlayerState(player);
+                    return state != null ? String.valueOf(state.alive) : "0";
+                };
+            case "kills":
+                return player -> {
+                    PlayerState state = getPlayerState(player);
+                    return state != null ? String.valueOf(state.kills) : "0";
+                };
+            case "rank":
+                return player -> {
+                    if (player == null) return null;
+                    int rank = leaderboard.getRank(player.getUniqueId(), Leaderboard.Stats.WINS);
+                    return rank > 0 ? String.valueOf(rank) : lang.lb_blank_space;
+                };
         }
-        return null;
+        return INVALID;
+    }
+
+    private PlayerState getPlayerState(OfflinePlayer player) {
+        return player != null ? snapshot.players.get(player.getUniqueId()) : null;
     }
 
-    private String getStatsPlayer(String identifier, OfflinePlayer player) {
-        String[] ind = identifier.split("_");
-        Leaderboard.Stats stat = Leaderboard.Stats.valueOf(ind[1].toUpperCase());
-        return String.valueOf(leaderboard.getStat(player.getUniqueId(), stat));
+    // Format: <value>_<arena>
+    private Resolver compileGame(String value, String arena) {
+        String name = arena.toLowerCase(Locale.ROOT);
+        return player -> {
+            GameState state = snapshot.games.get(name);
+            if (state == null) return null;
+            switch (value) {
+                case "status":
+                    return state.status;
+                case "cost":
+                    return String.valueOf(state.cost);
+                case "playerscurrent":
+                    return String.valueOf(state.players);
+                case "playersmax":
+                    return String.valueOf(state.maxPlayers);
+                default:
+                    return String.valueOf(state.minPlayers);
+            }
+        };
     }
 
-    private String getStatPlayers(String identifier) {
-        String[] ind = identifier.split("_");
-        Leaderboard.Stats stat = Leaderboard.Stats.valueOf(ind[1].toUpperCase());
-        int leader = (Integer.parseInt(ind[3]));
-        if (leaderboard.getStatsPlayers(stat).size() >= leader) {
-            return leaderboard.getStatsPlayers(stat).get(leader - 1);
-        } else {
-            return lang.lb_blank_space;
+    private void takeSnapshot() {
+        Map<String, GameState> games = new HashMap<>();
+        Map<UUID, PlayerState> players = new HashMap<>();
+        for (Game game : plugin.getGames()) {
+            GameArenaData arenaData = game.getGameArenaData();
+            GamePlayerData playerData = game.getGamePlayerData();
+            int alive = playerData.getPlayers().size();
+            games.put(arenaData.getName().toLowerCase(Locale.ROOT), new GameState(arenaData.getStatus().getName(),
+                    arenaData.getCost(), alive, arenaData.getMaxPlayers(), arenaData.getMinPlayers()));
+            for (Player player : playerData.getPlayerHandles()) {
+                players.put(player.getUniqueId(), new PlayerState(arenaData.getName(), alive, playerData.getKills(player)));
+            }
+            for (Player player : playerData.getSpectatorHandles()) {
+                players.putIfAbsent(player.getUniqueId(), new PlayerState(arenaData.getName(), alive, playerData.getKills(player)));
+            }
         }
+        snapshot = new Snapshot(games, players);
     }
 
-    private String getStatScores(String identifier) {
-        String[] ind = identifier.split("_");
-        Leaderboard.Stats stat = Leaderboard.Stats.valueOf(ind[1].toUpperCase());
-        int leader = (Integer.parseInt(ind[3]));
-        if (leaderboard.getStatsScores(stat).size() >= leader) {
-            return leaderboard.getStatsScores(stat).get(leader - 1);
-        } else {
-            return lang.lb_blank_space;
+    /**
+     * Compiled placeholder
+     */
+    @FunctionalInterface
+    private interface Resolver {
+
+        String resolve(OfflinePlayer player);
+
+    }
+
+    private static class Snapshot {
+
+        private final Map<String, GameState> games;
+        private final Map<UUID, PlayerState> players;
+
+        private Snapshot(Map<String, GameState> games, Map<UUID, PlayerState> players) {
+            this.games = games;
+            this.players = players;
+        }
+
+    }
+
+    private static class GameState {
+
+        private final String status;
+        private final int cost;
+        private final int players;
+        private final int maxPlayers;
+        private final int minPlayers;
+
+        private GameState(String status, int cost, int players, int maxPlayers, int minPlayers) {
+            this.status = status;
+            this.cost = cost;
+            this.players = players;
+            this.maxPlayers = maxPlayers;
+            this.minPlayers = minPlayers;
+        }
+
+    }
+
+    private static class PlayerState {
+
+        private final String arena;
+        private final int alive;
+        private final int kills;
+
+        private PlayerState(String arena, int alive, int kills) {
+            this.arena = arena;
+            this.alive = alive;
+            this.kills = kills;
         }
+
     }
 
 }
@@ -4,11 +4,12 @@ import org.bukkit.entity.Player;
 import org.jetbrains.annotations.Nullable;
 import tk.shanebee.hg.HG;
 import tk.shanebee.hg.data.PlayerData;
+import tk.shanebee.hg.data.PlayerData.State;
 import tk.shanebee.hg.game.Game;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * General player manager
@@ -17,12 +18,12 @@ import java.util.UUID;
 @SuppressWarnings({"WeakerAccess", "unused"})
 public class PlayerManager {
 
-    private final Map<UUID, PlayerData> playerMap;
-    private final Map<UUID, PlayerData> spectatorMap;
+    // Players and spectators, told apart by their state
+    // Only changed on the main thread, but may be read from async threads such as chat
+    private final Map<UUID, PlayerData> dataMap;
 
     public PlayerManager() {
-        this.playerMap = new HashMap<>();
-        this.spectatorMap = new HashMap<>();
+        this.dataMap = new ConcurrentHashMap<>();
     }
 
     /** Check if a player is playing a game and has PlayerData
@@ -38,7 +39,7 @@ public class PlayerManager {
      * @return True if player is playing in a game and has data
      */
     public boolean hasPlayerData(UUID uuid) {
-        return playerMap.containsKey(uuid);
+        return getPlayerData(uuid) != null;
     }
 
     /** Check if a player is spectating a game and has PlayerData
@@ -54,7 +55,7 @@ public class PlayerManager {
      * @return True if player is spectating a game and has data
      */
     public boolean hasSpectatorData(UUID uuid) {
-        return spectatorMap.containsKey(uuid);
+        return getSpectatorData(uuid) != null;
     }
 
     /** Get an instance of a player's data if player is playing in a game
@@ -72,10 +73,7 @@ public class PlayerManager {
      */
     @Nullable
     public PlayerData getPlayerData(UUID uuid) {
-        if (hasPlayerData(uuid)) {
-            return playerMap.get(uuid);
-        }
-        return null;
+        return getData(uuid, State.PLAYING);
     }
 
     /** Get an instance of a player's data if player is spectating a game
@@ -93,13 +91,11 @@ public class PlayerManager {
      */
     @Nullable
     public PlayerData getSpectatorData(UUID uuid) {
-        if (hasSpectatorData(uuid))
-            return spectatorMap.get(uuid);
-        return null;
+        return getData(uuid, State.SPECTATING);
     }
 
     /** Get an instance of a player's data if player is in a game
-     * <p>This will first check if a player is playing in a game, then check if they are spectating a game.
+     * <p>This returns the data of both players and spectators, see {@link PlayerData#getState()}.
      * <br>If you would like specific data use {@link #getPlayerData(Player)} or {@link #getSpectatorData(Player)}</p>
      * @param player Player to get data for
      * @return PlayerData from player, null if player is not in a game
@@ -110,18 +106,14 @@ public class PlayerManager {
     }
 
     /** Get an instance of a player's data if player is in a game
-     * <p>This will first check if a player is playing in a game, then check if they are spectating a game.
+     * <p>This returns the data of both players and spectators, see {@link PlayerData#getState()}.
      * <br>If you would like specific data use {@link #getPlayerData(UUID)} or {@link #getSpectatorData(UUID)}</p>
      * @param uuid UUID of player to get data for
      * @return PlayerData from player, null if player is not in a game
      */
     @Nullable
     public PlayerData getData(UUID uuid) {
-        if (hasPlayerData(uuid))
-            return getPlayerData(uuid);
-        else if (hasSpectatorData(uuid))
-            return getSpectatorData(uuid);
-        return null;
+        return dataMap.get(uuid);
     }
 
     public boolean hasData(Player player) {
@@ -129,7 +121,15 @@ public class PlayerManager {
     }
 
     public boolean hasData(UUID uuid) {
-        return hasPlayerData(uuid) || hasSpectatorData(uuid);
+        return dataMap.containsKey(uuid);
+    }
+
+    /** Check if a player's data is the data of a spectator
+     * @param playerData Data to check, as returned by {@link #getData(UUID)}
+     * @return True if this data belongs to a spectator rather than a player
+     */
+    public boolean isSpectator(PlayerData playerData) {
+        return playerData.getState() == State.SPECTATING;
     }
 
     /** Add a PlayerData to the stored PlayerData map
@@ -137,7 +137,8 @@ public class PlayerManager {
      * @param playerData PlayerData to add
      */
     public void addPlayerData(PlayerData playerData) {
-        playerMap.put(playerData.getUuid(), playerData);
+        playerData.setState(State.PLAYING);
+        dataMap.put(playerData.getUuid(), playerData);
     }
 
     /** Add a PlayerData to the stored SpectatorData map
@@ -145,35 +146,36 @@ public class PlayerManager {
      * @param playerData PlayerData to add
      */
     public void addSpectatorData(PlayerData playerData) {
-        this.spectatorMap.put(playerData.getUuid(), playerData);
+        playerData.setState(State.SPECTATING);
+        dataMap.put(playerData.getUuid(), playerData);
     }
 
     /** Remove a PlayerData from the PlayerData map
      * @param player Holder of PlayerData to remove
      */
     public void removePlayerData(Player player) {
-        this.playerMap.remove(player.getUniqueId());
+        removePlayerData(player.getUniqueId());
     }
 
     /** Remove a PlayerData from the PlayerData map
      * @param uuid UUID of holder of PlayerData to remove
      */
     public void removePlayerData(UUID uuid) {
-        this.playerMap.remove(uuid);
+        removeData(uuid, State.PLAYING);
     }
 
     /** Remove a PlayerData from the SpectatorData map
      * @param player Holder of PlayerData to remove
      */
     public void removeSpectatorData(Player player) {
-        this.spectatorMap.remove(player.getUniqueId());
+        removeSpectatorData(player.getUniqueId());
     }
 
     /** Remove a PlayerData from the SpectatorData map
      * @param uuid UUID of holder of PlayerData to remove
      */
     public void removeSpectatorData(UUID uuid) {
-        this.spectatorMap.remove(uuid);
+        removeData(uuid, State.SPECTATING);
     }
 
     public boolean transferPlayerDataToSpectator(Player player) {
@@ -181,17 +183,26 @@ public class PlayerManager {
     }
 
     public boolean transferPlayerDataToSpectator(UUID uuid) {
-        if (this.playerMap.containsKey(uuid)) {
-            PlayerData clone = this.playerMap.get(uuid).clone();
-            if (clone != null) {
-                this.spectatorMap.put(uuid, clone);
-                this.playerMap.remove(uuid);
-                return true;
-            }
+        PlayerData playerData = getPlayerData(uuid);
+        if (playerData != null) {
+            playerData.setState(State.SPECTATING);
+            return true;
         }
         return false;
     }
 
+    private PlayerData getData(UUID uuid, State state) {
+        PlayerData playerData = dataMap.get(uuid);
+        return playerData != null && playerData.getState() == state ? playerData : null;
+    }
+
+    private void removeData(UUID uuid, State state) {
+        PlayerData playerData = getData(uuid, state);
+        if (playerData != null) {
+            dataMap.remove(uuid, playerData);
+        }
+    }
+
     /** Get the current game of a player
      * @param player Player to get game
      * @return Game of player, null if player is not in a game
@@ -204,15 +215,10 @@ public class PlayerManager {
      * @param uuid UUID of player to get game
      * @return Game of player, null if player is not in a game
      */
-    @SuppressWarnings("ConstantConditions")
     @Nullable
     public Game getGame(UUID uuid) {
-        if (hasPlayerData(uuid))
-            return getPlayerData(uuid).getGame();
-        else if (hasSpectatorData(uuid))
-            return getSpectatorData(uuid).getGame();
-        else
-            return null;
+        PlayerData playerData = getData(uuid);
+        return playerData != null ? playerData.getGame() : null;
     }
 
 }
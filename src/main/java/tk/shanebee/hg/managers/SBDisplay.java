@@ -7,11 +7,12 @@ import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
 import org.bukkit.scoreboard.DisplaySlot;
 import org.bukkit.scoreboard.Objective;
-import org.bukkit.scoreboard.Score;
 import org.bukkit.scoreboard.Scoreboard;
 import org.bukkit.scoreboard.ScoreboardManager;
 import tk.shanebee.hg.HG;
+import tk.shanebee.hg.data.Language;
 import tk.shanebee.hg.game.Game;
+import tk.shanebee.hg.util.MessageTemplate;
 import tk.shanebee.hg.util.Util;
 
 /**
@@ -24,6 +25,8 @@ public class SBDisplay {
 	private Objective ob;
 	private HashMap<String, Scoreboard> score = new HashMap<>();
 	private final Game game;
+	// Entries last shown for each score, only lines which changed are sent to players again
+	private final String[] shown = new String[7];
 
 	public SBDisplay(Game game) {
 		this.manager = Bukkit.getScoreboardManager();
@@ -36,42 +39,32 @@ public class SBDisplay {
 	}
 
 	public void setAlive() {
-		/*
-		Score score = ob.getScore(ChatColor.translateAlternateColorCodes('&', HG.getPlugin().getLang().players_alive));
-		Score arena = ob.getScore(ChatColor.translateAlternateColorCodes('&', HG.getPlugin().getLang().scoreboard_arena + g.getName()));
-		
-		score.setScore(g.getPlayers().size());
-		arena.setScore(g.getPlayers().size() + 1);
-
-		 */
-		ob.unregister();
-		this.ob = board.registerNewObjective(ChatColor.translateAlternateColorCodes('&', HG.getPlugin().getLang().players_alive), "dummy", "arena" + game.getGameArenaData().getName());
-		this.ob.setDisplaySlot(DisplaySlot.SIDEBAR);
-		this.ob.setDisplayName(ChatColor.translateAlternateColorCodes('&', HG.getPlugin().getLang().scoreboard_title));
-		String alive = "  " + HG.getPlugin().getLang().players_alive_num.replace("<num>", String.valueOf(game.getGamePlayerData().getPlayers().size()));
-
-		Score space1 = ob.getScore(" ");
-		Score space2 = ob.getScore("  ");
-		Score space3 = ob.getScore("   ");
-		Score arena1 = ob.getScore(Util.getColString(HG.getPlugin().getLang().scoreboard_arena));
-		Score arena2 = ob.getScore(Util.getColString("  &e" + game.getGameArenaData().getName()));
-
-		Score alive1 = ob.getScore(Util.getColString(HG.getPlugin().getLang().players_alive));
-		Score alive2 = ob.getScore(Util.getColString(alive));
-
-		space1.setScore(6);
-		arena1.setScore(5);
-		arena2.setScore(4);
-		space2.setScore(3);
-		alive1.setScore(2);
-		alive2.setScore(1);
-		space3.setScore(0);
-
+		Language lang = HG.getPlugin().getLang();
+		String alive = "  " + MessageTemplate.of(lang.players_alive_num).render("num", game.getGamePlayerData().getPlayers().size());
 
+		// Index is the score of the line
+		String[] lines = new String[]{
+				"   ",
+				Util.getColString(alive),
+				Util.getColString(lang.players_alive),
+				"  ",
+				Util.getColString("  &e" + game.getGameArenaData().getName()),
+				Util.getColString(lang.scoreboard_arena),
+				" "
+		};
+		for (int i = 0; i < lines.length; i++) {
+			if (lines[i].equals(shown[i])) continue;
+			if (shown[i] != null) {
+				board.resetScores(shown[i]);
+			}
+			ob.getScore(lines[i]).setScore(i);
+			shown[i] = lines[i];
+		}
 	}
 
 	public void resetAlive() {
 		board.resetScores(ChatColor.translateAlternateColorCodes('&', HG.getPlugin().getLang().players_alive));
+		shown[2] = null;
 		score.clear();
 	}
 
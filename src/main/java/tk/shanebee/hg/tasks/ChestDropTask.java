@@ -11,21 +11,21 @@ import tk.shanebee.hg.data.Config;
 import tk.shanebee.hg.game.Bound;
 import tk.shanebee.hg.game.Game;
 import tk.shanebee.hg.listeners.ChestDrop;
+import tk.shanebee.hg.util.MessageTemplate;
 import tk.shanebee.hg.util.Util;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 
 public class ChestDropTask implements Runnable {
 
     private final Game game;
-    private final int timerID;
+    private final GameScheduler.Task task;
     private final List<ChestDrop> chests = new ArrayList<>();
 
     public ChestDropTask(Game game) {
         this.game = game;
-        timerID = Bukkit.getServer().getScheduler().scheduleSyncRepeatingTask(HG.getPlugin(), this, Config.randomChestInterval, Config.randomChestInterval);
+        this.task = HG.getPlugin().getGameScheduler().runTaskTimer(this, Config.randomChestInterval, Config.randomChestInterval);
     }
 
     public void run() {
@@ -55,21 +55,17 @@ public class ChestDropTask implements Runnable {
 
         chests.add(new ChestDrop(fb));
 
-        for (UUID u : game.getGamePlayerData().getPlayers()) {
-            Player p = Bukkit.getPlayer(u);
-            if (p != null) {
-                Util.scm(p, HG.getPlugin().getLang().chest_drop_1);
-                Util.scm(p, HG.getPlugin().getLang().chest_drop_2
-                        .replace("<x>", String.valueOf(x))
-                        .replace("<y>", String.valueOf(y))
-                        .replace("<z>", String.valueOf(z)));
-                Util.scm(p, HG.getPlugin().getLang().chest_drop_1);
-            }
+        String line = MessageTemplate.of(HG.getPlugin().getLang().chest_drop_1).render();
+        String drop = MessageTemplate.of(HG.getPlugin().getLang().chest_drop_2).render("x", x, "y", y, "z", z);
+        for (Player p : game.getGamePlayerData().getPlayerHandles()) {
+            Util.scm(p, line);
+            Util.scm(p, drop);
+            Util.scm(p, line);
         }
     }
 
     public void shutdown() {
-        Bukkit.getScheduler().cancelTask(timerID);
+        task.cancel();
         for (ChestDrop cd : chests) {
             if (cd != null) cd.remove();
         }
@@ -0,0 +1,80 @@
+package tk.shanebee.hg.tasks;
+
+import io.papermc.lib.PaperLib;
+import org.bukkit.World;
+import tk.shanebee.hg.HG;
+
+/**
+ * Loads the chunks of a {@link RestoreTask} in the background, a few chunks ahead of the one being restored
+ * <p>Loaded chunks are held with a plugin chunk ticket until they are released.
+ * A chunk released while it is still loading never gets a ticket.</p>
+ */
+class ChunkPreloader {
+
+    // How many chunks ahead of the current one to load
+    private static final int PRELOAD_CHUNKS = 2;
+
+    private static final byte NONE = 0;
+    private static final byte LOADING = 1;
+    private static final byte HELD = 2;
+    private static final byte RELEASED = 3;
+
+    private final HG plugin;
+    private final World world;
+    // Chunk keys in the order they are restored, x in the upper and z in the lower 32 bits
+    private final long[] keys;
+    private final byte[] states;
+
+    ChunkPreloader(HG plugin, World world, long[] keys) {
+        this.plugin = plugin;
+        this.world = world;
+        this.keys = keys;
+        this.states = new byte[keys.length];
+    }
+
+    /**
+     * Check if a chunk is loaded, loading it and the next few chunks if they aren't yet
+     *
+     * @param chunk Index of chunk
+     * @return True if the chunk is loaded and held
+     */
+    boolean isLoaded(int chunk) {
+        int last = Math.min(chunk + PRELOAD_CHUNKS, keys.length - 1);
+        for (int i = chunk; i <= last; i++) {
+            if (states[i] != NONE) continue;
+            states[i] = LOADING;
+            int index = i;
+            PaperLib.getChunkAtAsync(world, (int) (keys[i] >> 32), (int) keys[i]).thenAccept(c -> {
+                // Released or cancelled while loading, nobody would remove the ticket
+                if (states[index] != LOADING || !plugin.isEnabled()) return;
+                // Keep it loaded until we're done with it
+                c.addPluginChunkTicket(plugin);
+                states[index] = HELD;
+            });
+        }
+        return states[chunk] == HELD;
+    }
+
+    /**
+     * Release a chunk, it won't be held loaded any longer
+     *
+     * @param chunk Index of chunk
+     */
+    void release(int chunk) {
+        byte state = states[chunk];
+        states[chunk] = RELEASED;
+        if (state == HELD && world.isChunkLoaded((int) (keys[chunk] >> 32), (int) keys[chunk])) {
+            world.getChunkAt((int) (keys[chunk] >> 32), (int) keys[chunk]).removePluginChunkTicket(plugin);
+        }
+    }
+
+    /**
+     * Release all chunks, including chunks still loading
+     */
+    void releaseAll() {
+        for (int i = 0; i < keys.length; i++) {
+            release(i);
+        }
+    }
+
+}
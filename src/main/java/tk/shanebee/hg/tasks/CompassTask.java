@@ -1,7 +1,6 @@
 package tk.shanebee.hg.tasks;
 
 import org.bukkit.Bukkit;
-import org.bukkit.ChatColor;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
@@ -11,8 +10,7 @@ import tk.shanebee.hg.game.Game;
 import tk.shanebee.hg.HG;
 import tk.shanebee.hg.data.PlayerData;
 import tk.shanebee.hg.managers.PlayerManager;
-
-import java.util.UUID;
+import tk.shanebee.hg.util.MessageTemplate;
 
 public class CompassTask implements Runnable {
 
@@ -33,8 +31,8 @@ public class CompassTask implements Runnable {
 				if (pd != null) {
 
 					String[] st = getNearestPlayer(p, pd);
-					String info = ChatColor.translateAlternateColorCodes('&',
-							HG.getPlugin().getLang().compass_nearest_player.replace("<player>", st[0]).replace("<distance>", st[1]));
+					String info = MessageTemplate.of(HG.getPlugin().getLang().compass_nearest_player)
+							.render("player", st[0], "distance", st[1]);
 
 					for (ItemStack it : p.getInventory()) {
 						if (it != null && it.getType() == Material.COMPASS) {
@@ -65,11 +63,9 @@ public class CompassTask implements Runnable {
 
 		Player player = null;
 
-		for (UUID u: g.getGamePlayerData().getPlayers()) {
-
-			Player p2 = Bukkit.getPlayer(u);
+		for (Player p2 : g.getGamePlayerData().getPlayerHandles()) {
 
-			if (p2 != null && !p2.equals(p) && !pd.isOnTeam(u)) {
+			if (!p2.equals(p) && !pd.isOnTeam(p2.getUniqueId())) {
 
 				Location l = p2.getLocation();
 
@@ -1,18 +1,16 @@
 package tk.shanebee.hg.tasks;
 
-import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import tk.shanebee.hg.HG;
 import tk.shanebee.hg.data.Language;
 import tk.shanebee.hg.game.Game;
+import tk.shanebee.hg.util.MessageTemplate;
 import tk.shanebee.hg.util.Util;
 
-import java.util.UUID;
-
 public class FreeRoamTask implements Runnable {
 
     private final Game game;
-    private final int id;
+    private final GameScheduler.Task task;
     private final int roamTime;
 
     public FreeRoamTask(Game game) {
@@ -21,19 +19,16 @@ public class FreeRoamTask implements Runnable {
 
         Language lang = HG.getPlugin().getLang();
 
-        for (UUID u : game.getGamePlayerData().getPlayers()) {
-            Player player = Bukkit.getPlayer(u);
-            if (player != null) {
-                Util.scm(player, lang.roam_game_started);
-                if (roamTime > 0) {
-                    Util.scm(player, lang.roam_time.replace("<roam>", "" + roamTime));
-                }
-                player.setHealth(20);
-                player.setFoodLevel(20);
-                game.getGamePlayerData().unFreeze(player);
+        for (Player player : game.getGamePlayerData().getPlayerHandles()) {
+            Util.scm(player, lang.roam_game_started);
+            if (roamTime > 0) {
+                Util.scm(player, MessageTemplate.of(lang.roam_time).render("roam", roamTime));
             }
+            player.setHealth(20);
+            player.setFoodLevel(20);
+            game.getGamePlayerData().unFreeze(player);
         }
-        this.id = Bukkit.getScheduler().scheduleSyncDelayedTask(HG.getPlugin(), this, roamTime * 20L);
+        this.task = HG.getPlugin().getGameScheduler().runTaskLater(this, roamTime * 20L);
     }
 
     @Override
@@ -45,7 +40,7 @@ public class FreeRoamTask implements Runnable {
     }
 
     public void stop() {
-        Bukkit.getScheduler().cancelTask(id);
+        task.cancel();
     }
 
 }
@@ -0,0 +1,235 @@
+package tk.shanebee.hg.tasks;
+
+import org.bukkit.Bukkit;
+import tk.shanebee.hg.HG;
+import tk.shanebee.hg.data.Config;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+
+/**
+ * Global scheduler for the tasks of all games
+ * <p>Tasks are kept in a hierarchical timing wheel driven by one repeating task, instead of registering
+ * every task of every game with the Bukkit scheduler. Scheduling and cancelling a task takes O(1).</p>
+ * <p>Each level of the wheel has 64 slots. A slot of the first level holds the tasks due in one tick,
+ * a slot of each next level holds the tasks due within all slots of the level below.
+ * Whenever a level wraps around, the tasks of the next slot of the level above are moved down.</p>
+ * <p>Tasks due in a tick share a time budget, tasks left when it runs out are run first on the next tick.</p>
+ */
+public class GameScheduler implements Runnable {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final HG plugin;
+    private final List<List<Set<Task>>> wheel = new ArrayList<>(LEVELS);
+    // Tasks due later than the wheel reaches, moved into the wheel whenever its last level wraps around
+    private final Set<Task> overflow = new LinkedHashSet<>();
+    // Tasks due to run, oldest first
+    private final Deque<Task> due = new ArrayDeque<>();
+    private int size = 0;
+    private long tick = 0;
+    private int id = -1;
+
+    public GameScheduler(HG plugin) {
+        this.plugin = plugin;
+        for (int level = 0; level < LEVELS; level++) {
+            List<Set<Task>> slots = new ArrayList<>(SLOTS);
+            for (int slot = 0; slot < SLOTS; slot++) {
+                slots.add(new LinkedHashSet<>());
+            }
+            wheel.add(slots);
+        }
+    }
+
+    /**
+     * Run a task once after a delay
+     *
+     * @param runnable Task to run
+     * @param delay    Delay in ticks, at least one tick
+     * @return Task which can be cancelled
+     */
+    public Task runTaskLater(Runnable runnable, long delay) {
+        return schedule(runnable, delay, 0);
+    }
+
+    /**
+     * Run a task repeatedly
+     *
+     * @param runnable Task to run
+     * @param delay    Delay in ticks before the first run, at least one tick
+     * @param period   Period in ticks between runs
+     * @return Task which can be cancelled
+     */
+    public Task runTaskTimer(Runnable runnable, long delay, long period) {
+        return schedule(runnable, delay, Math.max(period, 1));
+    }
+
+    private Task schedule(Runnable runnable, long delay, long period) {
+        Task task = new Task(runnable, period);
+        task.deadline = tick + Math.max(delay, 1);
+        insert(task);
+        size++;
+        if (id == -1) {
+            id = Bukkit.getScheduler().scheduleSyncRepeatingTask(plugin, this, 1, 1);
+        }
+        return task;
+    }
+
+    private void insert(Task task) {
+        long delta = task.deadline - tick;
+        if (delta <= 0) {
+            task.slot = null;
+            due.add(task);
+            return;
+        }
+        Set<Task> slot = overflow;
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < 1L << (SLOT_BITS * (level + 1))) {
+                slot = wheel.get(level).get((int) (task.deadline >> (SLOT_BITS * level)) & MASK);
+                break;
+            }
+        }
+        slot.add(task);
+        task.slot = slot;
+    }
+
+    @Override
+    public void run() {
+        long start = System.nanoTime();
+        advance();
+
+        long budget = (long) (Config.schedulerMaxTickTime * 1_000_000);
+        boolean first = true;
+        while (!due.isEmpty()) {
+            // At least one task runs every tick, so tasks are never held back forever
+            if (!first && System.nanoTime() - start >= budget) break;
+            first = false;
+            Task task = due.poll();
+            try {
+                task.runnable.run();
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.WARNING, "A game task generated an exception", e);
+            }
+            if (!task.active) continue;
+            if (task.period > 0) {
+                task.deadline = Math.max(task.deadline + task.period, tick + 1);
+                insert(task);
+            } else {
+                task.active = false;
+                size--;
+            }
+        }
+        if (size == 0) {
+            Bukkit.getScheduler().cancelTask(id);
+            id = -1;
+        }
+    }
+
+    // Move the wheel forward one tick, adding the tasks of that tick to the due tasks
+    private void advance() {
+        tick++;
+        if ((tick & MASK) == 0) {
+            int level = 1;
+            while (level < LEVELS) {
+                int index = (int) (tick >> (SLOT_BITS * level)) & MASK;
+                cascade(wheel.get(level).get(index));
+                if (index != 0) break;
+                level++;
+            }
+            if (level == LEVELS) {
+                cascade(overflow);
+            }
+        }
+        Set<Task> slot = wheel.get(0).get((int) tick & MASK);
+        for (Task task : slot) {
+            task.slot = null;
+            due.add(task);
+        }
+        slot.clear();
+    }
+
+    // Insert the tasks of a slot again, now that they are close enough to go into a lower level
+    private void cascade(Set<Task> slot) {
+        if (slot.isEmpty()) return;
+        List<Task> tasks = new ArrayList<>(slot);
+        slot.clear();
+        for (Task task : tasks) {
+            insert(task);
+        }
+    }
+
+    /**
+     * Stop this scheduler
+     * <p>All tasks are cancelled</p>
+     */
+    public void stop() {
+        if (id != -1) {
+            Bukkit.getScheduler().cancelTask(id);
+            id = -1;
+        }
+        for (List<Set<Task>> level : wheel) {
+            for (Set<Task> slot : level) {
+                slot.forEach(task -> task.active = false);
+                slot.clear();
+            }
+        }
+        overflow.forEach(task -> task.active = false);
+        overflow.clear();
+        due.forEach(task -> task.active = false);
+        due.clear();
+        size = 0;
+    }
+
+    /**
+     * Task scheduled with a {@link GameScheduler}
+     */
+    public class Task {
+
+        private final Runnable runnable;
+        private final long period;
+        private long deadline;
+        // Slot of the wheel this task is in, null while due or running
+        private Set<Task> slot;
+        private boolean active = true;
+
+        private Task(Runnable runnable, long period) {
+            this.runnable = runnable;
+            this.period = period;
+        }
+
+        /**
+         * Cancel this task
+         * <p>Can also be called by the task itself while running</p>
+         */
+        public void cancel() {
+            if (!active) return;
+            active = false;
+            if (slot != null) {
+                slot.remove(this);
+                slot = null;
+            } else {
+                due.remove(this);
+            }
+            size--;
+        }
+
+        /**
+         * Check if this task is still scheduled to run
+         *
+         * @return True if this task will run again
+         */
+        public boolean isActive() {
+            return active;
+        }
+
+    }
+
+}
@@ -0,0 +1,35 @@
+package tk.shanebee.hg.tasks;
+
+import tk.shanebee.hg.game.Game;
+
+/**
+ * A restore of an arena's blocks, processed by the {@link RollbackScheduler}
+ */
+interface RestoreTask {
+
+    /**
+     * Get the game this restore belongs to
+     *
+     * @return Game of this restore
+     */
+    Game getGame();
+
+    /**
+     * Restore blocks until the deadline has passed
+     *
+     * @param deadline {@link System#nanoTime()} to stop at
+     * @return True if all blocks have been restored
+     */
+    boolean restore(long deadline);
+
+    /**
+     * Called once all blocks have been restored
+     */
+    void finish();
+
+    /**
+     * Release anything this restore is holding, it will not be processed any further
+     */
+    void cancel();
+
+}
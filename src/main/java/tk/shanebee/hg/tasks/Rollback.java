@@ -1,65 +1,275 @@
 package tk.shanebee.hg.tasks;
 
-import java.util.Iterator;
-
-import org.bukkit.Bukkit;
-import org.bukkit.block.BlockState;
+import org.bukkit.Location;
+import org.bukkit.World;
 import tk.shanebee.hg.HG;
 import tk.shanebee.hg.data.Config;
 import tk.shanebee.hg.data.ItemFrameData;
+import tk.shanebee.hg.game.BlockJournal;
 import tk.shanebee.hg.game.Game;
 import tk.shanebee.hg.Status;
 import tk.shanebee.hg.game.GameBlockData;
+import tk.shanebee.hg.util.BlockUtils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
- * Rollback task for resetting blocks after a game finishes
+ * Rollback for resetting blocks after a game finishes
+ * <p>Blocks are restored by the {@link RollbackScheduler} within its per tick time budget</p>
  */
-public class Rollback implements Runnable {
+public class Rollback implements RestoreTask {
 
-	private final Iterator<BlockState> session;
-	private final Iterator<ItemFrameData> itemFrameDataIterator;
+	private final HG plugin;
+	private final BlockJournal session;
 	private final Game game;
 	private final GameBlockData gameBlockData;
-	private final int blocks_per_second;
-	private int timerID;
+	private final Status finishStatus;
+
+	// Journal entries in the order they will be restored
+	private final int[] order;
+	private int position = 0;
+
+	// Entries near spawns are restored first, after which players may already join
+	private final int[][] spawns;
+	private final long priorityRadius;
+	private final boolean usePriority;
+	private int priorityEnd;
+	private boolean priorityDone;
+
+	// Chunk grouping, null if not grouping by chunk
+	private final long[] chunkKeys;
+	private final int[] chunkStarts;
+	private final ChunkPreloader chunkLoader;
+	private int chunk = 0;
 
 	public Rollback(Game game) {
+		this.plugin = HG.getPlugin();
 		this.game = game;
 		this.gameBlockData = game.getGameBlockData();
-		this.blocks_per_second = Config.blocks_per_second / 10;
+		// Arenas which weren't ready to begin with (ie: resumed on load) shouldn't become ready
+		Status status = game.getGameArenaData().getStatus();
+		this.finishStatus = status == Status.BROKEN || status == Status.NOTREADY ? status : Status.READY;
 		game.getGameArenaData().setStatus(Status.ROLLBACK);
-		this.session = gameBlockData.getBlocks().iterator();
-		this.itemFrameDataIterator = gameBlockData.getItemFrameData().iterator();
-		timerID = Bukkit.getServer().getScheduler().scheduleSyncDelayedTask(HG.getPlugin(), this, 2);
+		this.session = gameBlockData.getBlocks();
+		this.spawns = getSpawnCoords(game.getGameArenaData().getSpawns());
+		this.priorityRadius = (long) Config.rollbackPriorityRadius * Config.rollbackPriorityRadius;
+		this.usePriority = Config.rollbackPriorityRadius > 0 && spawns.length > 0 && finishStatus == Status.READY;
+		this.priorityDone = !usePriority;
+
+		int size = session.size();
+		this.priorityEnd = size;
+		this.order = new int[size];
+		if (Config.rollbackGroupByChunk && size > 0) {
+			Map<Long, Integer> groups = groupByChunk();
+			this.chunkKeys = new long[groups.size()];
+			this.chunkStarts = new int[groups.size()];
+			fillChunkOrder(groups);
+			this.chunkLoader = new ChunkPreloader(plugin, session.getWorld(), chunkKeys);
+		} else {
+			// Journal is in recorded order, restore it backwards
+			for (int i = 0; i < size; i++) {
+				order[i] = size - 1 - i;
+			}
+			if (usePriority) {
+				sortBySpawnDistance();
+			}
+			this.chunkKeys = null;
+			this.chunkStarts = null;
+			this.chunkLoader = null;
+		}
+		plugin.getRollbackScheduler().add(this);
+	}
+
+	@Override
+	public Game getGame() {
+		return game;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>At least one block is restored per call so a rollback always makes progress,
+	 * unless it is waiting for a chunk to load.
+	 * Once all blocks around the spawns are restored, the arena becomes {@link Status#RESTORING joinable}</p>
+	 */
+	@Override
+	public boolean restore(long deadline) {
+		boolean done = restoreBlocks(deadline);
+		if (!priorityDone && position >= priorityEnd) {
+			priorityDone = true;
+			if (!done && game.getGameArenaData().getStatus() == Status.ROLLBACK) {
+				game.getGameArenaData().setStatus(Status.RESTORING);
+			}
+		}
+		return done;
 	}
 
-	public void run() {
-		int i = 0;
-		// Rollback blocks
-		while (i < blocks_per_second && session.hasNext()) {
-		    BlockState state = session.next();
-		    if (state != null) {
-                state.update(true);
-            }
-			i++;
+	private boolean restoreBlocks(long deadline) {
+		if (chunkStarts == null) {
+			do {
+				if (position >= order.length) return true;
+				session.restore(order[position++]);
+			} while (System.nanoTime() < deadline);
+			return position >= order.length;
 		}
-		if (session.hasNext()) {
-			timerID = Bukkit.getServer().getScheduler().scheduleSyncDelayedTask(HG.getPlugin(), this, 2);
-			return;
+
+		while (chunk < chunkStarts.length) {
+			if (!chunkLoader.isLoaded(chunk)) return false;
+
+			// Restore this chunk in one go, only yielding if we run out of time
+			int end = chunk + 1 < chunkStarts.length ? chunkStarts[chunk + 1] : order.length;
+			while (position < end) {
+				session.restore(order[position++]);
+				if (position < end && System.nanoTime() >= deadline) return false;
+			}
+			chunkLoader.release(chunk++);
+			if (System.nanoTime() >= deadline) break;
 		}
+		return chunk >= chunkStarts.length;
+	}
 
+	@Override
+	public void finish() {
 		// Rollback item frames
-		while (itemFrameDataIterator.hasNext()) {
-		    ItemFrameData data = itemFrameDataIterator.next();
-		    if (data != null) {
-		        data.resetItem();
-            }
-        }
-
-        Bukkit.getServer().getScheduler().cancelTask(timerID);
-        gameBlockData.resetBlocks();
-        gameBlockData.resetItemFrames();
-        game.getGameArenaData().setStatus(Status.READY);
+		for (ItemFrameData data : gameBlockData.getItemFrameData()) {
+			if (data != null) {
+				data.resetItem();
+			}
+		}
+
+		gameBlockData.resetBlocks();
+		gameBlockData.resetItemFrames();
+		// Players may have joined while the outer region was restoring
+		Status status = game.getGameArenaData().getStatus();
+		if (status == Status.ROLLBACK || status == Status.RESTORING) {
+			game.getGameArenaData().setStatus(finishStatus);
+		}
+	}
+
+	/**
+	 * Release any chunks this rollback is holding loaded
+	 */
+	@Override
+	public void cancel() {
+		if (chunkLoader != null) {
+			chunkLoader.releaseAll();
+		}
+	}
+
+	// Map of chunk key -> group id, in order of first appearance
+	private Map<Long, Integer> groupByChunk() {
+		Map<Long, Integer> groups = new HashMap<>();
+		for (int i = session.size() - 1; i >= 0; i--) {
+			groups.putIfAbsent(getChunkKey(session.getPosition(i)), groups.size());
+		}
+		return groups;
+	}
+
+	// Sort entries by chunk, within each chunk supporting blocks go before blocks which need support
+	private void fillChunkOrder(Map<Long, Integer> groups) {
+		int size = session.size();
+
+		// Sort the chunks themselves so we sweep through the arena
+		long[] sortedKeys = new long[groups.size()];
+		int k = 0;
+		for (long key : groups.keySet()) {
+			sortedKeys[k++] = key;
+		}
+		Arrays.sort(sortedKeys);
+		int[] distances = null;
+		if (usePriority) {
+			// Sweep outwards from the spawns instead
+			long[] byDistance = new long[sortedKeys.length];
+			for (int r = 0; r < sortedKeys.length; r++) {
+				byDistance[r] = ((long) getChunkDistance(sortedKeys[r]) << 32) | r;
+			}
+			Arrays.sort(byDistance);
+			long[] keys = sortedKeys.clone();
+			distances = new int[sortedKeys.length];
+			for (int r = 0; r < sortedKeys.length; r++) {
+				sortedKeys[r] = keys[(int) byDistance[r]];
+				distances[r] = (int) (byDistance[r] >> 32);
+			}
+		}
+		int[] rank = new int[groups.size()];
+		for (int r = 0; r < sortedKeys.length; r++) {
+			chunkKeys[r] = sortedKeys[r];
+			rank[groups.get(sortedKeys[r])] = r;
+		}
+
+		// Counting sort into (chunk, phase) buckets, keeping reverse recorded order within a bucket
+		int[] buckets = new int[size];
+		int[] counts = new int[groups.size() * 2 + 1];
+		for (int i = 0; i < size; i++) {
+			long pos = session.getPosition(i);
+			int bucket = rank[groups.get(getChunkKey(pos))] * 2 + (BlockUtils.isPhysicsSensitive(session.getBlockData(i).getMaterial()) ? 1 : 0);
+			buckets[i] = bucket;
+			counts[bucket + 1]++;
+		}
+		for (int b = 1; b < counts.length; b++) {
+			counts[b] += counts[b - 1];
+		}
+		for (int r = 0; r < chunkStarts.length; r++) {
+			chunkStarts[r] = counts[r * 2];
+			if (distances != null && priorityEnd == size && distances[r] > priorityRadius) {
+				priorityEnd = chunkStarts[r];
+			}
+		}
+		for (int i = size - 1; i >= 0; i--) {
+			order[counts[buckets[i]]++] = i;
+		}
+	}
+
+	// Sort entries by distance to the nearest spawn, keeping reverse recorded order for equal distances
+	private void sortBySpawnDistance() {
+		long[] keys = new long[order.length];
+		int within = 0;
+		for (int i = 0; i < order.length; i++) {
+			long position = session.getPosition(order[i]);
+			long distance = Long.MAX_VALUE;
+			for (int[] spawn : spawns) {
+				long dx = BlockJournal.getX(position) - spawn[0];
+				long dy = BlockJournal.getY(position) - spawn[1];
+				long dz = BlockJournal.getZ(position) - spawn[2];
+				distance = Math.min(distance, dx * dx + dy * dy + dz * dz);
+			}
+			if (distance <= priorityRadius) within++;
+			keys[i] = (Math.min(distance, Integer.MAX_VALUE) << 32) | i;
+		}
+		Arrays.sort(keys);
+		int[] unsorted = order.clone();
+		for (int i = 0; i < order.length; i++) {
+			order[i] = unsorted[(int) keys[i]];
+		}
+		priorityEnd = within;
+	}
+
+	// Squared horizontal distance from the nearest spawn to a chunk
+	private int getChunkDistance(long key) {
+		int minX = (int) (key >> 32) << 4;
+		int minZ = (int) key << 4;
+		long distance = Long.MAX_VALUE;
+		for (int[] spawn : spawns) {
+			long dx = Math.max(0, Math.max(minX - spawn[0], spawn[0] - (minX + 15)));
+			long dz = Math.max(0, Math.max(minZ - spawn[2], spawn[2] - (minZ + 15)));
+			distance = Math.min(distance, dx * dx + dz * dz);
+		}
+		return (int) Math.min(distance, Integer.MAX_VALUE);
+	}
+
+	private static int[][] getSpawnCoords(List<Location> locations) {
+		int[][] spawns = new int[locations.size()][];
+		for (int i = 0; i < spawns.length; i++) {
+			Location location = locations.get(i);
+			spawns[i] = new int[]{location.getBlockX(), location.getBlockY(), location.getBlockZ()};
+		}
+		return spawns;
+	}
+
+	private static long getChunkKey(long position) {
+		return ((long) (BlockJournal.getX(position) >> 4) << 32) | ((BlockJournal.getZ(position) >> 4) & 0xFFFFFFFFL);
 	}
 
 }
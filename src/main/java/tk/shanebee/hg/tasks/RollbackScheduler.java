@@ -0,0 +1,186 @@
+package tk.shanebee.hg.tasks;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import tk.shanebee.hg.HG;
+import tk.shanebee.hg.data.Config;
+import tk.shanebee.hg.game.Game;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Global scheduler for all {@link Rollback rollbacks} and {@link TemplateRestore template restores}
+ * <p>Runs once per tick while any arena is rolling back, and shares a time budget
+ * between all of them. The budget shrinks as the server's tick time (MSPT) rises.</p>
+ */
+public class RollbackScheduler implements Runnable {
+
+    private static final double TICK_MS = 50.0;
+    private static final double MIN_BUDGET_MS = 0.5;
+    private static final Method AVERAGE_TICK_TIME;
+
+    static {
+        Method method = null;
+        try {
+            // Paper only
+            method = Server.class.getMethod("getAverageTickTime");
+        } catch (NoSuchMethodException ignore) {
+        }
+        AVERAGE_TICK_TIME = method;
+    }
+
+    private final HG plugin;
+    private final List<RestoreTask> sessions = new ArrayList<>();
+    private final Set<Game> prioritized = new HashSet<>();
+    private int id = -1;
+    private int next = 0;
+    private long lastRun = 0;
+    private double mspt = 0;
+
+    public RollbackScheduler(HG plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Add a rollback to be processed
+     *
+     * @param rollback Rollback to add
+     */
+    void add(RestoreTask rollback) {
+        sessions.add(rollback);
+        if (id == -1) {
+            lastRun = System.nanoTime();
+            id = Bukkit.getScheduler().scheduleSyncRepeatingTask(plugin, this, 1, 1);
+        }
+    }
+
+    /**
+     * Cancel the running rollback of a game
+     * <p>Blocks not yet restored are left as is</p>
+     *
+     * @param game Game to cancel the rollback for
+     */
+    public void cancel(Game game) {
+        sessions.removeIf(rollback -> {
+            if (rollback.getGame() != game) return false;
+            rollback.cancel();
+            return true;
+        });
+        prioritized.remove(game);
+        if (sessions.isEmpty()) {
+            stop();
+        }
+    }
+
+    /**
+     * Let the running rollback of a game go before all others
+     * <p>Used when a game is waiting to start while the outer region of its arena is still restoring.
+     * It still stays within the tick budget, it only gets the whole of it.</p>
+     *
+     * @param game Game to prioritize the rollback for
+     */
+    public void prioritize(Game game) {
+        if (isRollingBack(game)) {
+            prioritized.add(game);
+        }
+    }
+
+    /**
+     * Check if a game currently has a rollback running
+     *
+     * @param game Game to check
+     * @return True if game is rolling back
+     */
+    public boolean isRollingBack(Game game) {
+        for (RestoreTask rollback : sessions) {
+            if (rollback.getGame() == game) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Get the current time budget per tick for all rollbacks
+     *
+     * @return Budget in milliseconds
+     */
+    public double getBudget() {
+        // Only use half of the remaining tick time, never more than configured
+        double budget = (TICK_MS - mspt) / 2;
+        return Math.max(MIN_BUDGET_MS, Math.min(Config.rollbackMaxTickTime, budget));
+    }
+
+    @Override
+    public void run() {
+        updateMspt();
+        long now = System.nanoTime();
+        long deadline = now + (long) (getBudget() * 1_000_000);
+
+        // Rollbacks a game is waiting on go first
+        List<RestoreTask> finished = new ArrayList<>();
+        for (RestoreTask rollback : sessions) {
+            if (prioritized.contains(rollback.getGame()) && rollback.restore(deadline)) {
+                finished.add(rollback);
+            }
+        }
+
+        // Split what is left of the budget between all rollbacks which haven't had their turn yet
+        // rotating the starting rollback each tick to keep it fair
+        int count = sessions.size();
+        for (int i = 0; i < count; i++) {
+            RestoreTask rollback = sessions.get((next + i) % count);
+            if (prioritized.contains(rollback.getGame())) continue;
+            long slice = (deadline - System.nanoTime()) / (count - i);
+            if (rollback.restore(System.nanoTime() + slice)) {
+                finished.add(rollback);
+            }
+        }
+        next = count == 0 ? 0 : (next + 1) % count;
+
+        for (RestoreTask rollback : finished) {
+            sessions.remove(rollback);
+            rollback.finish();
+        }
+        prioritized.removeIf(game -> !isRollingBack(game));
+        if (sessions.isEmpty()) {
+            stop();
+        }
+    }
+
+    private void updateMspt() {
+        long now = System.nanoTime();
+        double measured = -1;
+        if (AVERAGE_TICK_TIME != null) {
+            try {
+                measured = (double) AVERAGE_TICK_TIME.invoke(Bukkit.getServer());
+            } catch (Exception ignore) {
+            }
+        }
+        if (measured < 0) {
+            // Without Paper we can only tell once the server falls behind,
+            // in which case the time between our runs grows past 50ms
+            double interval = (now - lastRun) / 1_000_000.0;
+            measured = interval > TICK_MS * 1.05 ? interval : 0;
+        }
+        lastRun = now;
+        mspt = mspt * 0.8 + measured * 0.2;
+    }
+
+    /**
+     * Stop this scheduler
+     * <p>Rollbacks which haven't finished will not be processed</p>
+     */
+    public void stop() {
+        if (id != -1) {
+            Bukkit.getScheduler().cancelTask(id);
+            id = -1;
+        }
+        sessions.forEach(RestoreTask::cancel);
+        sessions.clear();
+        prioritized.clear();
+    }
+
+}
@@ -0,0 +1,125 @@
+package tk.shanebee.hg.tasks;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Sign;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.plugin.IllegalPluginAccessException;
+import tk.shanebee.hg.HG;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Updates the lobby signs of all games
+ * <p>Signs are written at most once per tick, no matter how often their text changes during the tick.
+ * Signs in unloaded chunks are written once their chunk loads, instead of loading the chunk.
+ * Signs which already show their text are not written at all.</p>
+ */
+public class SignUpdater implements Listener {
+
+    private final HG plugin;
+    // Text to write to each sign on the next tick, null lines are left as they are
+    private final Map<Location, String[]> pending = new LinkedHashMap<>();
+    // Text waiting for the chunk of its sign to load
+    private final Map<Location, String[]> unloaded = new HashMap<>();
+    private boolean scheduled = false;
+
+    public SignUpdater(HG plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Set the lines of a sign, they are written on the next tick
+     *
+     * @param block Block of the sign
+     * @param lines Lines to set, null lines are left as they are
+     */
+    public void update(Block block, String... lines) {
+        String[] text = pending.computeIfAbsent(block.getLocation(), location -> {
+            String[] waiting = unloaded.remove(location);
+            return waiting != null ? waiting : new String[4];
+        });
+        for (int i = 0; i < lines.length && i < text.length; i++) {
+            if (lines[i] != null) {
+                text[i] = lines[i];
+            }
+        }
+        schedule();
+    }
+
+    private void schedule() {
+        if (scheduled) return;
+        try {
+            Bukkit.getScheduler().runTask(plugin, this::flush);
+            scheduled = true;
+        } catch (IllegalPluginAccessException ignore) {
+            // Plugin is disabling, no more ticks to wait for
+            flush();
+        }
+    }
+
+    /**
+     * Write all pending signs in loaded chunks right away
+     */
+    public void flush() {
+        scheduled = false;
+        if (pending.isEmpty()) return;
+        List<Map.Entry<Location, String[]>> signs = new ArrayList<>(pending.entrySet());
+        pending.clear();
+        for (Map.Entry<Location, String[]> entry : signs) {
+            Location location = entry.getKey();
+            World world = location.getWorld();
+            if (world == null) continue;
+            if (!world.isChunkLoaded(location.getBlockX() >> 4, location.getBlockZ() >> 4)) {
+                unloaded.put(location, entry.getValue());
+                continue;
+            }
+            write(location.getBlock(), entry.getValue());
+        }
+    }
+
+    private void write(Block block, String[] lines) {
+        BlockState state = block.getState();
+        // Sign was removed since
+        if (!(state instanceof Sign)) return;
+        Sign sign = (Sign) state;
+        boolean changed = false;
+        for (int i = 0; i < lines.length; i++) {
+            if (lines[i] != null && !lines[i].equals(sign.getLine(i))) {
+                sign.setLine(i, lines[i]);
+                changed = true;
+            }
+        }
+        if (changed) {
+            sign.update(true);
+        }
+    }
+
+    @EventHandler
+    private void onChunkLoad(ChunkLoadEvent event) {
+        if (unloaded.isEmpty()) return;
+        Chunk chunk = event.getChunk();
+        boolean loaded = unloaded.entrySet().removeIf(entry -> {
+            Location location = entry.getKey();
+            if (location.getWorld() != chunk.getWorld() || location.getBlockX() >> 4 != chunk.getX() ||
+                    location.getBlockZ() >> 4 != chunk.getZ()) return false;
+            pending.put(location, entry.getValue());
+            return true;
+        });
+        // Written on the next tick, not while the chunk is still loading
+        if (loaded) {
+            schedule();
+        }
+    }
+
+}
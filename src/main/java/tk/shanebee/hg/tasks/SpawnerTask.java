@@ -1,6 +1,5 @@
 package tk.shanebee.hg.tasks;
 
-import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
@@ -11,12 +10,11 @@ import tk.shanebee.hg.managers.MobManager;
 
 import java.util.List;
 import java.util.Random;
-import java.util.UUID;
 
 public class SpawnerTask implements Runnable {
 
     private final Game game;
-    private final int id;
+    private final GameScheduler.Task task;
     private final Random random = new Random();
     private final World world;
     private final List<MobEntry> dayMobs;
@@ -24,7 +22,7 @@ public class SpawnerTask implements Runnable {
 
     public SpawnerTask(Game game, int i) {
         this.game = game;
-        this.id = Bukkit.getScheduler().scheduleSyncRepeatingTask(game.getGameArenaData().getPlugin(), this, i, i);
+        this.task = game.getGameArenaData().getPlugin().getGameScheduler().runTaskTimer(this, i, i);
         this.world = game.getGameArenaData().getBound().getWorld();
         MobManager mobManager = game.getMobManager();
         this.dayMobs = mobManager.getDayMobs();
@@ -33,22 +31,19 @@ public class SpawnerTask implements Runnable {
 
     @Override
     public void run() {
-        for (UUID u : game.getGamePlayerData().getPlayers()) {
-            Player player = Bukkit.getPlayer(u);
-            if (player != null) {
-                Location loc = player.getLocation().clone();
-
-                loc = getSafeLoc(world, loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
-
-                if (loc != null && game.getGameArenaData().isInRegion(loc)) {
-                    MobEntry mobEntry;
-                    if (isDay(world)) {
-                        mobEntry = dayMobs.get(random.nextInt(dayMobs.size()));
-                    } else {
-                        mobEntry = nightMobs.get(random.nextInt(nightMobs.size()));
-                    }
-                    mobEntry.spawn(loc);
+        for (Player player : game.getGamePlayerData().getPlayerHandles()) {
+            Location loc = player.getLocation();
+
+            loc = getSafeLoc(world, loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
+
+            if (loc != null && game.getGameArenaData().isInRegion(loc)) {
+                MobEntry mobEntry;
+                if (isDay(world)) {
+                    mobEntry = dayMobs.get(random.nextInt(dayMobs.size()));
+                } else {
+                    mobEntry = nightMobs.get(random.nextInt(nightMobs.size()));
                 }
+                mobEntry.spawn(loc);
             }
         }
     }
@@ -92,7 +87,7 @@ public class SpawnerTask implements Runnable {
     }
 
     public void stop() {
-        Bukkit.getScheduler().cancelTask(id);
+        task.cancel();
     }
 
 }
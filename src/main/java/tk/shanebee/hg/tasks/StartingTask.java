@@ -1,13 +1,11 @@
 package tk.shanebee.hg.tasks;
 
-import org.bukkit.Bukkit;
-import org.bukkit.Material;
-import org.bukkit.entity.Player;
 import tk.shanebee.hg.HG;
 import tk.shanebee.hg.Status;
 import tk.shanebee.hg.data.Config;
 import tk.shanebee.hg.data.Language;
 import tk.shanebee.hg.game.Game;
+import tk.shanebee.hg.util.MessageTemplate;
 import tk.shanebee.hg.util.Util;
 
 import java.util.Objects;
@@ -15,7 +13,7 @@ import java.util.Objects;
 public class StartingTask implements Runnable {
 
     private int timer;
-    private final int id;
+    private final GameScheduler.Task task;
     private final Game game;
     private final Language lang;
 
@@ -24,16 +22,14 @@ public class StartingTask implements Runnable {
         this.game = g;
         this.lang = HG.getPlugin().getLang();
         String name = g.getGameArenaData().getName();
-        String broadcast = lang.game_started
-                .replace("<arena>", name)
-                .replace("<seconds>", "" + timer);
+        String broadcast = MessageTemplate.of(lang.game_started).render("arena", name, "seconds", timer);
         if (Config.broadcastJoinMessages) {
             Util.broadcast(broadcast);
-            Util.broadcast(lang.game_join.replace("<arena>", name));
+            Util.broadcast(MessageTemplate.of(lang.game_join).render("arena", name));
         } else {
             game.getGamePlayerData().msgAll(broadcast);
         }
-        this.id = Bukkit.getScheduler().scheduleSyncRepeatingTask(HG.getPlugin(), this, 5 * 20L, 5 * 20L);
+        this.task = HG.getPlugin().getGameScheduler().runTaskTimer(this, 5 * 20L, 5 * 20L);
     }
 
     @Override
@@ -46,10 +42,8 @@ public class StartingTask implements Runnable {
             //clear inventory on game start
 
             if ((Config.enableleaveitem) || Config.enableforcestartitem)
-                game.getGamePlayerData().getPlayers().forEach(uuid -> {
-                    Player player = Bukkit.getPlayer(uuid);
-                    assert player != null;
-                    if (player.getInventory().contains(Objects.requireNonNull(Material.getMaterial(Config.forcestartitem)))  || player.getInventory().contains(Objects.requireNonNull(Material.getMaterial(Config.leaveitemtype)))) {
+                game.getGamePlayerData().getPlayerHandles().forEach(player -> {
+                    if (player.getInventory().contains(Objects.requireNonNull(Config.forceStartItem))  || player.getInventory().contains(Objects.requireNonNull(Config.leaveItem))) {
                         player.getInventory().clear();
                     }
                 });
@@ -57,12 +51,12 @@ public class StartingTask implements Runnable {
             stop();
             game.startFreeRoam();
         } else {
-            game.getGamePlayerData().msgAll(lang.game_countdown.replace("<timer>", String.valueOf(timer)));
+            game.getGamePlayerData().msgAll(MessageTemplate.of(lang.game_countdown).render("timer", timer));
         }
     }
 
     public void stop() {
-        Bukkit.getScheduler().cancelTask(id);
+        task.cancel();
     }
 
 }
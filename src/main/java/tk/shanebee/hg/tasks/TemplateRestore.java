@@ -0,0 +1,152 @@
+package tk.shanebee.hg.tasks;
+
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import tk.shanebee.hg.HG;
+import tk.shanebee.hg.Status;
+import tk.shanebee.hg.data.ArenaTemplate;
+import tk.shanebee.hg.data.ArenaTemplate.Section;
+import tk.shanebee.hg.data.ItemFrameData;
+import tk.shanebee.hg.data.TileContents;
+import tk.shanebee.hg.game.Game;
+import tk.shanebee.hg.game.GameBlockData;
+import tk.shanebee.hg.util.BlockUtils;
+
+import java.util.List;
+
+/**
+ * Restore of an arena from its {@link ArenaTemplate}
+ * <p>Unlike a {@link Rollback} this also repairs changes which were never recorded, such as fire spread or liquid flow.
+ * The template is decoded in the background, blocks are then restored by the {@link RollbackScheduler}
+ * one chunk section at a time within its per tick time budget.</p>
+ */
+public class TemplateRestore implements RestoreTask {
+
+    private final HG plugin;
+    private final Game game;
+    private final GameBlockData gameBlockData;
+    private final World world;
+    private final Status finishStatus;
+    private boolean cancelled = false;
+
+    // Null until the template has been decoded
+    private List<Section> sections;
+    private int section = 0;
+    private int position = 0;
+
+    // Chunk of each section, sections of a chunk are next to each other
+    private int[] sectionChunks;
+    private ChunkPreloader chunkLoader;
+
+    public TemplateRestore(Game game, ArenaTemplate template) {
+        this.plugin = HG.getPlugin();
+        this.game = game;
+        this.gameBlockData = game.getGameBlockData();
+        this.world = game.getGameArenaData().getBound().getWorld();
+        Status status = game.getGameArenaData().getStatus();
+        this.finishStatus = status == Status.BROKEN || status == Status.NOTREADY ? status : Status.READY;
+        game.getGameArenaData().setStatus(Status.ROLLBACK);
+
+        template.load(game.getGameArenaData().getBound(), sections -> {
+            if (cancelled) return;
+            if (sections == null) {
+                // Fall back to rolling back the recorded blocks
+                plugin.getRollbackScheduler().cancel(game);
+                game.getGameArenaData().setStatus(finishStatus);
+                new Rollback(game);
+                return;
+            }
+            indexChunks(sections);
+            this.sections = sections;
+        });
+        plugin.getRollbackScheduler().add(this);
+    }
+
+    @Override
+    public Game getGame() {
+        return game;
+    }
+
+    @Override
+    public boolean restore(long deadline) {
+        if (sections == null) return false;
+
+        while (section < sections.size()) {
+            int chunk = sectionChunks[section];
+            if (!chunkLoader.isLoaded(chunk)) return false;
+
+            Section current = sections.get(section);
+            int size = current.size();
+            while (position < size) {
+                restoreBlock(current, position++);
+                if (position < size && System.nanoTime() >= deadline) return false;
+            }
+            position = 0;
+            section++;
+            if (section == sections.size() || sectionChunks[section] != chunk) {
+                chunkLoader.release(chunk);
+            }
+            if (System.nanoTime() >= deadline) break;
+        }
+        return section >= sections.size();
+    }
+
+    private void restoreBlock(Section current, int index) {
+        Block block = world.getBlockAt(current.getX(index), current.getY(index), current.getZ(index));
+        BlockUtils.restoreBlock(block, current.getBlockData(index));
+        TileContents contents = current.getContents(index);
+        if (contents != null) {
+            contents.apply(block);
+        }
+    }
+
+    @Override
+    public void finish() {
+        // Rollback item frames
+        for (ItemFrameData data : gameBlockData.getItemFrameData()) {
+            if (data != null) {
+                data.resetItem();
+            }
+        }
+
+        // Recorded blocks are covered by the template
+        gameBlockData.resetBlocks();
+        gameBlockData.resetItemFrames();
+        if (game.getGameArenaData().getStatus() == Status.ROLLBACK) {
+            game.getGameArenaData().setStatus(finishStatus);
+        }
+    }
+
+    /**
+     * Release any chunks this restore is holding loaded
+     */
+    @Override
+    public void cancel() {
+        cancelled = true;
+        if (chunkLoader != null) {
+            chunkLoader.releaseAll();
+        }
+    }
+
+    private void indexChunks(List<Section> sections) {
+        sectionChunks = new int[sections.size()];
+        int chunks = 0;
+        for (int i = 0; i < sections.size(); i++) {
+            if (i > 0 && !sameChunk(sections.get(i - 1), sections.get(i))) {
+                chunks++;
+            }
+            sectionChunks[i] = chunks;
+        }
+        long[] chunkKeys = new long[sections.isEmpty() ? 0 : chunks + 1];
+        for (int i = 0; i < sections.size(); i++) {
+            Section s = sections.get(i);
+            chunkKeys[sectionChunks[i]] = ((long) s.getChunkX() << 32) | (s.getChunkZ() & 0xFFFFFFFFL);
+        }
+        chunkLoader = new ChunkPreloader(plugin, world, chunkKeys);
+    }
+
+    private static boolean sameChunk(Section a, Section b) {
+        return a.getChunkX() == b.getChunkX() && a.getChunkZ() == b.getChunkZ();
+    }
+
+}
@@ -1,14 +1,12 @@
 package tk.shanebee.hg.tasks;
 
-import org.bukkit.Bukkit;
 import tk.shanebee.hg.data.Config;
 import tk.shanebee.hg.data.Language;
 import tk.shanebee.hg.game.Game;
 import tk.shanebee.hg.HG;
 import tk.shanebee.hg.Status;
 import tk.shanebee.hg.game.GameArenaData;
-
-import java.util.Objects;
+import tk.shanebee.hg.util.MessageTemplate;
 
 public class TimerTask implements Runnable {
 
@@ -17,12 +15,12 @@ public class TimerTask implements Runnable {
 	private final int teleportTimer;
 	private final int borderCountdownStart;
 	private final int borderCountdownEnd;
-	private final int id;
+	private final GameScheduler.Task task;
 	private final Game game;
 	private final Language lang;
-    private final String end_min;
-    private final String end_minsec;
-    private final String end_sec;
+    private final MessageTemplate end_min;
+    private final MessageTemplate end_minsec;
+    private final MessageTemplate end_sec;
 
 	public TimerTask(Game g, int time) {
 		this.remainingtime = time;
@@ -32,13 +30,13 @@ public class TimerTask implements Runnable {
 		this.teleportTimer = Config.teleportEndTime;
 		this.borderCountdownStart = g.getGameBorderData().getBorderTimer().get(0);
 		this.borderCountdownEnd = g.getGameBorderData().getBorderTimer().get(1);
-		g.getGamePlayerData().getPlayers().forEach(uuid -> Objects.requireNonNull(Bukkit.getPlayer(uuid)).setInvulnerable(false));
+		g.getGamePlayerData().getPlayerHandles().forEach(player -> player.setInvulnerable(false));
 
-		this.end_min = lang.game_ending_min;
-		this.end_minsec = lang.game_ending_minsec;
-		this.end_sec = lang.game_ending_sec;
+		this.end_min = MessageTemplate.of(lang.game_ending_min);
+		this.end_minsec = MessageTemplate.of(lang.game_ending_minsec);
+		this.end_sec = MessageTemplate.of(lang.game_ending_sec);
 
-		this.id = Bukkit.getScheduler().scheduleSyncRepeatingTask(plugin, this, 0, 30 * 20L);
+		this.task = plugin.getGameScheduler().runTaskTimer(this, 1, 20);
 	}
 	
 	@Override
@@ -51,7 +49,7 @@ public class TimerTask implements Runnable {
 		if (Config.borderEnabled && remainingtime == borderCountdownStart) {
 			int closingIn = remainingtime - borderCountdownEnd;
 			game.getGameBorderData().setBorder(closingIn);
-			game.getGamePlayerData().msgAll(lang.game_border_closing.replace("<seconds>", String.valueOf(closingIn)));
+			game.getGamePlayerData().msgAll(MessageTemplate.of(lang.game_border_closing).render("seconds", closingIn));
 		}
 
 		if (gameArenaData.getChestRefillTime() > 0 && remainingtime == gameArenaData.getChestRefillTime()) {
@@ -68,33 +66,33 @@ public class TimerTask implements Runnable {
 		if (remainingtime == teleportTimer && Config.teleportEnd) {
 			game.getGamePlayerData().msgAll(lang.game_almost_over);
 			game.getGamePlayerData().respawnAll();
-		} else if (this.remainingtime < 10) {
+		} else if (this.remainingtime <= 0) {
 			stop();
 			game.stop(false);
-		} else {
-			if (!Config.bossbar) {
-				int minutes = this.remainingtime / 60;
-				int asd = this.remainingtime % 60;
-				if (minutes != 0) {
-					if (asd == 0) {
-					    if (end_min.length() < 1) return;
-                        game.getGamePlayerData().msgAll(end_min.replace("<minutes>", "" + minutes));
-                    } else {
-					    if (end_minsec.length() < 1) return;
-                        game.getGamePlayerData().msgAll(end_minsec.replace("<minutes>", "" + minutes).replace("<seconds>", "" + asd));
-                    }
+			return;
+		} else if (!Config.bossbar && timer % 30 == 0) {
+			// Time left is announced every 30 seconds
+			int minutes = this.remainingtime / 60;
+			int asd = this.remainingtime % 60;
+			if (minutes != 0) {
+				if (asd == 0) {
+					if (!end_min.isEmpty())
+						game.getGamePlayerData().msgAll(end_min.render("minutes", minutes));
 				} else {
-				    if (end_sec.length() < 1) return;
-				    game.getGamePlayerData().msgAll(end_sec.replace("<seconds>", "" + this.remainingtime));
-                }
+					if (!end_minsec.isEmpty())
+						game.getGamePlayerData().msgAll(end_minsec.render("minutes", minutes, "seconds", asd));
+				}
+			} else {
+				if (!end_sec.isEmpty())
+					game.getGamePlayerData().msgAll(end_sec.render("seconds", this.remainingtime));
 			}
 		}
-		remainingtime = (remainingtime - 30);
-		timer += 30;
+		remainingtime--;
+		timer++;
 	}
 	
 	public void stop() {
-		Bukkit.getScheduler().cancelTask(id);
+		task.cancel();
 	}
 
 }
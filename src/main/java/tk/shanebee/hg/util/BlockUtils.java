@@ -5,9 +5,28 @@ import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.Tag;
 import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.Directional;
+import org.bukkit.block.data.FaceAttachable;
+import org.bukkit.block.data.Hangable;
+import org.bukkit.block.data.MultipleFacing;
+import org.bukkit.block.data.type.AmethystCluster;
+import org.bukkit.block.data.type.Cocoa;
+import org.bukkit.block.data.type.CoralWallFan;
+import org.bukkit.block.data.type.Fire;
+import org.bukkit.block.data.type.Ladder;
+import org.bukkit.block.data.type.PointedDripstone;
+import org.bukkit.block.data.type.RedstoneWallTorch;
+import org.bukkit.block.data.type.Tripwire;
+import org.bukkit.block.data.type.TripwireHook;
+import org.bukkit.block.data.type.WallSign;
 import tk.shanebee.hg.data.Config;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 public class BlockUtils {
 
@@ -15,6 +34,35 @@ public class BlockUtils {
     private static ImmutableSet<Material> BONUS_BLOCK_MATERIALS = ImmutableSet.of();
     private static ImmutableSet<Material> BREAKABLE_BLOCK_MATERIALS = ImmutableSet.of();
     private static boolean BREAKABLE_BLOCK_ALL = false;
+    // Materials which fall or break off when their neighbours change, indexed by ordinal
+    private static final boolean[] PHYSICS_MATERIALS = new boolean[Material.values().length];
+
+    // How a material is attached to the block supporting it, indexed by ordinal
+    private static final byte ATTACH_NONE = 0;
+    private static final byte ATTACH_FLOOR = 1; // Block below
+    private static final byte ATTACH_WALL = 2; // Block behind, opposite of its facing
+    private static final byte ATTACH_FACING = 3; // Block in front, in its facing
+    private static final byte ATTACH_FACE = 4; // Depends on its attached face
+    private static final byte ATTACH_CEILING = 5; // Block above
+    private static final byte ATTACH_FACES = 6; // Any of the faces it covers
+    private static final byte ATTACH_HANGING = 7; // Block above if hanging, otherwise block below
+    private static final byte ATTACH_VERTICAL = 8; // Block opposite of where its tip points
+    private static final boolean FACE_ATTACHABLE = Util.classExists("org.bukkit.block.data.FaceAttachable");
+    private static final boolean CAVES_AND_CLIFFS = Util.classExists("org.bukkit.block.data.Hangable");
+    // Plants growing down from the block above, without data telling them apart from plants growing up
+    private static final Set<Material> CEILING_PLANTS = getMaterials("WEEPING_VINES", "WEEPING_VINES_PLANT",
+            "CAVE_VINES", "CAVE_VINES_PLANT", "HANGING_ROOTS", "SPORE_BLOSSOM");
+    // Wall variants of torches, these have no data type of their own
+    private static final Set<Material> WALL_TORCHES = getMaterials("WALL_TORCH", "SOUL_WALL_TORCH");
+    private static final byte[] ATTACHMENTS = new byte[Material.values().length];
+
+    static {
+        for (Material material : Material.values()) {
+            if (material.isLegacy() || !material.isBlock() || isAir(material)) continue;
+            PHYSICS_MATERIALS[material.ordinal()] = material.hasGravity() || !material.isSolid();
+            ATTACHMENTS[material.ordinal()] = getAttachment(material);
+        }
+    }
 
     /**
      * Setup the block sets.
@@ -54,6 +102,133 @@ public class BlockUtils {
         return BREAKABLE_BLOCK_ALL || BREAKABLE_BLOCK_MATERIALS.contains(block.getType());
     }
 
+    /**
+     * Check if a material can fall or break off when its neighbours change
+     * <p>This is a table lookup, cheap enough for physics events</p>
+     *
+     * @param material Material to check
+     * @return True if material has gravity or needs support
+     */
+    public static boolean isPhysicsSensitive(Material material) {
+        return PHYSICS_MATERIALS[material.ordinal()];
+    }
+
+    /**
+     * Restore block data to a block without applying physics
+     * <p>Restored blocks already carry their final state, so their neighbours don't need to be updated.
+     * Blocks which already match are not written at all.</p>
+     *
+     * @param block Block to restore
+     * @param data  Block data to restore
+     */
+    public static void restoreBlock(Block block, BlockData data) {
+        if (!block.getBlockData().equals(data)) {
+            block.setBlockData(data, false);
+        }
+    }
+
+    /**
+     * Restore a full block state (including tile entity data) without applying physics
+     *
+     * @param state State to restore
+     */
+    public static void restoreState(BlockState state) {
+        state.update(true, false);
+    }
+
+    /**
+     * Check if a block is attached to (supported by) the block on one of its faces
+     * <p>Uses the block's {@link BlockData}, materials which can't be attached are ruled out by a table lookup</p>
+     *
+     * @param block Block to check
+     * @param face  Face of the block the supporting block is on
+     * @return True if the block would break or fall without the block on this face
+     */
+    public static boolean isAttached(Block block, BlockFace face) {
+        byte attachment = ATTACHMENTS[block.getType().ordinal()];
+        switch (attachment) {
+            case ATTACH_NONE:
+                return false;
+            case ATTACH_FLOOR:
+                return face == BlockFace.DOWN;
+            case ATTACH_CEILING:
+                return face == BlockFace.UP;
+            case ATTACH_FACES:
+                return ((MultipleFacing) block.getBlockData()).hasFace(face);
+            default:
+                return getSupportFace(block.getBlockData(), attachment) == face;
+        }
+    }
+
+    private static BlockFace getSupportFace(BlockData data, byte attachment) {
+        if (attachment == ATTACH_HANGING) {
+            return ((Hangable) data).isHanging() ? BlockFace.UP : BlockFace.DOWN;
+        }
+        if (attachment == ATTACH_VERTICAL) {
+            return ((PointedDripstone) data).getVerticalDirection().getOppositeFace();
+        }
+        if (!(data instanceof Directional)) {
+            return attachment == ATTACH_FACE ? getAttachedFace(data, BlockFace.DOWN) : null;
+        }
+        BlockFace facing = ((Directional) data).getFacing();
+        switch (attachment) {
+            case ATTACH_WALL:
+                return facing.getOppositeFace();
+            case ATTACH_FACING:
+                return facing;
+            default:
+                return getAttachedFace(data, facing.getOppositeFace());
+        }
+    }
+
+    private static BlockFace getAttachedFace(BlockData data, BlockFace wall) {
+        switch (((FaceAttachable) data).getAttachedFace()) {
+            case FLOOR:
+                return BlockFace.DOWN;
+            case CEILING:
+                return BlockFace.UP;
+            default:
+                return wall;
+        }
+    }
+
+    private static byte getAttachment(Material material) {
+        if (CEILING_PLANTS.contains(material)) return ATTACH_CEILING;
+        BlockData data = material.createBlockData();
+        if (data instanceof Cocoa) return ATTACH_FACING;
+        if (FACE_ATTACHABLE && data instanceof FaceAttachable) return ATTACH_FACE;
+        if (CAVES_AND_CLIFFS) {
+            if (data instanceof Hangable) return ATTACH_HANGING;
+            if (data instanceof PointedDripstone) return ATTACH_VERTICAL;
+            if (data instanceof AmethystCluster) return ATTACH_WALL;
+        }
+        // Vines and glow lichen, not fences, panes or walls
+        if (data instanceof MultipleFacing && !material.isSolid() && !(data instanceof Tripwire) && !(data instanceof Fire)) {
+            return ATTACH_FACES;
+        }
+        // Wall signs, banners and torches, ladders, tripwire hooks and coral fans (wall heads don't need support)
+        if (data instanceof WallSign || data instanceof Ladder || data instanceof TripwireHook
+                || data instanceof CoralWallFan || data instanceof RedstoneWallTorch || WALL_TORCHES.contains(material)
+                || (data instanceof Directional && Tag.BANNERS.isTagged(material))) {
+            return ATTACH_WALL;
+        }
+        return PHYSICS_MATERIALS[material.ordinal()] ? ATTACH_FLOOR : ATTACH_NONE;
+    }
+
+    private static Set<Material> getMaterials(String... names) {
+        // Looked up by name so materials missing on older versions are skipped
+        Set<Material> materials = EnumSet.noneOf(Material.class);
+        for (String name : names) {
+            Material material = Material.getMaterial(name);
+            if (material != null) materials.add(material);
+        }
+        return materials;
+    }
+
+    private static boolean isAir(Material material) {
+        return material == Material.AIR || material == Material.CAVE_AIR || material == Material.VOID_AIR;
+    }
+
     private static ImmutableSet.Builder<Material> setup(List<String> materialStrings) {
         ImmutableSet.Builder<Material> materialBuilder = ImmutableSet.builder();
 
@@ -0,0 +1,137 @@
+package tk.shanebee.hg.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Message compiled into colored literal parts and placeholder slots
+ * <p>Colors are applied once when compiling, rendering fills the slots in a single pass.
+ * Slots are written as {@code <name>} in the message, ie: {@code <arena>} or {@code <player>}.</p>
+ * <p>Templates of messages from {@link tk.shanebee.hg.data.Language} are compiled when the language loads
+ * and cached by their message, see {@link #of(String)}.</p>
+ */
+public class MessageTemplate {
+
+    private static final Map<String, MessageTemplate> CACHE = new ConcurrentHashMap<>();
+
+    // Colored literal parts, one more than there are slots
+    private final String[] literals;
+    private final String[] slots;
+    private final int length;
+
+    private MessageTemplate(String[] literals, String[] slots) {
+        this.literals = literals;
+        this.slots = slots;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.length = length;
+    }
+
+    /**
+     * Get the template of a message, compiling it the first time
+     * <p>Only to be used for messages which don't change, such as messages from the language file</p>
+     *
+     * @param message Message to get template for
+     * @return Template of message
+     */
+    public static MessageTemplate of(String message) {
+        return CACHE.computeIfAbsent(message, MessageTemplate::compile);
+    }
+
+    /**
+     * Clear all cached templates
+     * <p>Called when the language reloads</p>
+     */
+    public static void clearCache() {
+        CACHE.clear();
+    }
+
+    /**
+     * Compile a message into a template
+     *
+     * @param message Message to compile
+     * @return Compiled template
+     */
+    public static MessageTemplate compile(String message) {
+        String colored = Util.getColString(message);
+        List<String> literals = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        int start = 0;
+        int i = 0;
+        while ((i = colored.indexOf('<', i)) >= 0) {
+            int end = i + 1;
+            while (end < colored.length() && isNameChar(colored.charAt(end))) {
+                end++;
+            }
+            if (end > i + 1 && end < colored.length() && colored.charAt(end) == '>') {
+                literals.add(colored.substring(start, i));
+                // Interned so slots are usually matched by reference
+                slots.add(colored.substring(i + 1, end).intern());
+                start = end + 1;
+                i = start;
+            } else {
+                i++;
+            }
+        }
+        literals.add(colored.substring(start));
+        return new MessageTemplate(literals.toArray(new String[0]), slots.toArray(new String[0]));
+    }
+
+    private static boolean isNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == '-';
+    }
+
+    /**
+     * Check if this template renders to an empty message
+     *
+     * @return True if this template is empty
+     */
+    public boolean isEmpty() {
+        return slots.length == 0 && length == 0;
+    }
+
+    /**
+     * Render this template
+     * <p>Values are given as pairs of slot name and value, ie: {@code render("arena", name, "seconds", 30)}.
+     * Slots without a value are kept as they are. Values containing color codes are colored.</p>
+     *
+     * @param values Slot names and their values
+     * @return Rendered message
+     */
+    public String render(Object... values) {
+        if (slots.length == 0) return literals[0];
+        StringBuilder builder = new StringBuilder(length + slots.length * 16);
+        for (int i = 0; i < slots.length; i++) {
+            builder.append(literals[i]);
+            String value = getValue(slots[i], values);
+            if (value != null) {
+                builder.append(value);
+            } else {
+                builder.append('<').append(slots[i]).append('>');
+            }
+        }
+        builder.append(literals[slots.length]);
+        return builder.toString();
+    }
+
+    private static String getValue(String slot, Object[] values) {
+        for (int i = 0; i + 1 < values.length; i += 2) {
+            Object name = values[i];
+            if (name == slot || slot.equals(name)) {
+                String value = String.valueOf(values[i + 1]);
+                return value.indexOf('&') >= 0 || value.contains("<#") ? Util.getColString(value) : value;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return render();
+    }
+
+}
@@ -24,6 +24,17 @@ public class Text {
         return new TextComponent(Util.getColString(message));
     }
 
+    /**
+     * Get the components of a message with colors applied
+     * <p>Used to build a message once and send it to many players</p>
+     *
+     * @param message Message to translate with colors
+     * @return Components of the message
+     */
+    public static BaseComponent[] components(@NotNull String message) {
+        return TextComponent.fromLegacyText(Util.getColString(message));
+    }
+
     /**
      * Create a clickable message with a hover message
      * <p>Clicking the message will run a command</p>
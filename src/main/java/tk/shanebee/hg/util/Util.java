@@ -8,26 +8,22 @@ import org.bukkit.FireworkEffect.Type;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.Tag;
-import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Firework;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.meta.FireworkMeta;
-import org.bukkit.material.Attachable;
-import org.bukkit.material.MaterialData;
 import org.jetbrains.annotations.NotNull;
 import tk.shanebee.hg.HG;
 import tk.shanebee.hg.data.Config;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Generalized utility class for shortcut methods
@@ -37,7 +33,8 @@ public class Util {
 
     private static final Logger LOGGER = Bukkit.getLogger();
     public static final BlockFace[] faces = new BlockFace[]{BlockFace.EAST, BlockFace.WEST, BlockFace.NORTH, BlockFace.SOUTH};
-    private static final Pattern HEX_PATTERN = Pattern.compile("<#([A-Fa-f0-9]){6}>");
+    // Server version as {major, minor, revision}, parsed once
+    private static int[] serverVersion;
 
     /**
      * Log a message to console prefixed with the plugin's name
@@ -171,19 +168,38 @@ public class Util {
      * @return Formatted string
      */
     public static String getColString(String string) {
-        if (isRunningMinecraft(1, 16)) {
-            Matcher matcher = HEX_PATTERN.matcher(string);
-            while (matcher.find()) {
-                final ChatColor hexColor = ChatColor.of(matcher.group().substring(1, matcher.group().length() - 1));
-                final String before = string.substring(0, matcher.start());
-                final String after = string.substring(matcher.end());
-                string = before + hexColor + after;
-                matcher = HEX_PATTERN.matcher(string);
-            }
+        int hex = string.indexOf("<#");
+        if (hex >= 0 && isRunningMinecraft(1, 16)) {
+            string = translateHexColors(string, hex);
         }
+        if (string.indexOf('&') < 0) return string;
         return ChatColor.translateAlternateColorCodes('&', string);
     }
 
+    // Replace hex colors such as <#FF0000>, starting at the first possible one
+    private static String translateHexColors(String string, int start) {
+        StringBuilder builder = null;
+        int last = 0;
+        for (int i = start; i >= 0; i = string.indexOf("<#", i + 1)) {
+            if (i + 8 >= string.length() || string.charAt(i + 8) != '>' || !isHex(string, i + 2, i + 8)) continue;
+            if (builder == null) {
+                builder = new StringBuilder(string.length() + 16);
+            }
+            builder.append(string, last, i).append(ChatColor.of(string.substring(i + 1, i + 8)));
+            last = i + 9;
+            i = i + 8;
+        }
+        if (builder == null) return string;
+        return builder.append(string, last, string.length()).toString();
+    }
+
+    private static boolean isHex(String string, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (Character.digit(string.charAt(i), 16) < 0) return false;
+        }
+        return true;
+    }
+
     /**
      * Check if a string is an Integer
      *
@@ -237,7 +253,7 @@ public class Util {
      * @param uuid UUID list to convert
      * @return String of player names
      */
-    public static List<String> convertUUIDListToStringList(List<UUID> uuid) {
+    public static List<String> convertUUIDListToStringList(Collection<UUID> uuid) {
         List<String> winners = new ArrayList<>();
         for (UUID id : uuid) {
             winners.add(Objects.requireNonNull(Bukkit.getPlayer(id)).getName());
@@ -276,21 +292,6 @@ public class Util {
         fw.setFireworkMeta(fm);
     }
 
-    @SuppressWarnings("deprecation")
-    public static boolean isAttached(Block base, Block attached) {
-        if (attached.getType() == Material.AIR) return false;
-
-        MaterialData bs = attached.getState().getData();
-        //BlockData bs = attached.getBlockData();
-
-        if (!(bs instanceof Attachable)) return false;
-
-        Attachable at = (Attachable) bs;
-        BlockFace face = at.getAttachedFace();
-
-        return attached.getRelative(face).equals(base);
-    }
-
     /**
      * Check if server is running a minimum Minecraft version
      *
@@ -311,15 +312,21 @@ public class Util {
      * @return True if running this version or higher
      */
     public static boolean isRunningMinecraft(int major, int minor, int revision) {
-        String[] version = Bukkit.getServer().getBukkitVersion().split("-")[0].split("\\.");
-        int maj = Integer.parseInt(version[0]);
-        int min = Integer.parseInt(version[1]);
-        int rev;
-        try {
-            rev = Integer.parseInt(version[2]);
-        } catch (Exception ignore) {
-            rev = 0;
+        int[] version = serverVersion;
+        if (version == null) {
+            String[] split = Bukkit.getServer().getBukkitVersion().split("-")[0].split("\\.");
+            int rev;
+            try {
+                rev = Integer.parseInt(split[2]);
+            } catch (Exception ignore) {
+                rev = 0;
+            }
+            version = new int[]{Integer.parseInt(split[0]), Integer.parseInt(split[1]), rev};
+            serverVersion = version;
         }
+        int maj = version[0];
+        int min = version[1];
+        int rev = version[2];
         return maj > major || min > minor || (min == minor && rev >= revision);
     }
 